@@ -0,0 +1,204 @@
+package com.martinappl.components.general;
+
+import java.util.Arrays;
+
+/**
+ * @author Martin Appl
+ *
+ * Prefix sums of item extents (for example widths of items in horizontal list) kept in Fenwick tree.
+ * Items which were not measured yet are counted with estimated extent. Estimate is either set explicitly, or computed
+ * as average of measured items, so offsets get more precise as items are measured.
+ * Updates and all queries take O(log n) time.
+ */
+public class ExtentIndex {
+	private static final int NOT_MEASURED = -1;
+
+	private int mCount;
+	/** Fenwick tree of measured extents, not measured items contribute 0 */
+	private int[] mMeasuredTree = new int[1];
+	/** Fenwick tree with 1 on place of every measured item */
+	private int[] mMeasuredCountTree = new int[1];
+	/** Measured extent of every item or NOT_MEASURED */
+	private int[] mExtents = new int[0];
+
+	private int mMeasuredCount;
+	private long mMeasuredSum;
+
+	private final int mDefaultEstimate;
+	private int mFixedEstimate = NOT_MEASURED;
+
+	/**
+	 * @param defaultEstimate extent used for not measured items, until first item is measured
+	 */
+	public ExtentIndex(int defaultEstimate){
+		mDefaultEstimate = defaultEstimate;
+	}
+
+	/**
+	 * Resizes index for new number of items. If count changes, all items become not measured,
+	 * same count keeps measurements. Use clear when items changed without change of count.
+	 */
+	public void setCount(int count){
+		Validate.isTrue(count >= 0, "Count must not be negative: ", count);
+		if(count == mCount) return;
+
+		if(mExtents.length < count){
+			mMeasuredTree = new int[count + 1];
+			mMeasuredCountTree = new int[count + 1];
+			mExtents = new int[count];
+		}
+		mCount = count;
+		clear();
+	}
+
+	public int getCount(){
+		return mCount;
+	}
+
+	/**
+	 * Marks all items as not measured, number of items is kept
+	 */
+	public void clear(){
+		Arrays.fill(mMeasuredTree, 0);
+		Arrays.fill(mMeasuredCountTree, 0);
+		Arrays.fill(mExtents, NOT_MEASURED);
+		mMeasuredCount = 0;
+		mMeasuredSum = 0;
+	}
+
+	/**
+	 * Stores measured extent of item
+	 */
+	public void setExtent(int position, int extent){
+		if(position < 0 || position >= mCount) return;
+		if(extent < 0) extent = 0;
+
+		final int old = mExtents[position];
+		if(old == extent) return;
+
+		if(old == NOT_MEASURED){
+			update(mMeasuredCountTree, position, 1);
+			update(mMeasuredTree, position, extent);
+			mMeasuredCount++;
+			mMeasuredSum += extent;
+		}
+		else{
+			update(mMeasuredTree, position, extent - old);
+			mMeasuredSum += extent - old;
+		}
+		mExtents[position] = extent;
+	}
+
+	/**
+	 * Marks item as not measured, it will be counted with estimated extent
+	 */
+	public void invalidate(int position){
+		if(position < 0 || position >= mCount) return;
+
+		final int old = mExtents[position];
+		if(old == NOT_MEASURED) return;
+
+		update(mMeasuredCountTree, position, -1);
+		update(mMeasuredTree, position, -old);
+		mMeasuredCount--;
+		mMeasuredSum -= old;
+		mExtents[position] = NOT_MEASURED;
+	}
+
+	/**
+	 * @return false also for position out of index
+	 */
+	public boolean isMeasured(int position){
+		if(position < 0 || position >= mCount) return false;
+		return mExtents[position] != NOT_MEASURED;
+	}
+
+	/**
+	 * @return true if all items are measured and offsets are exact
+	 */
+	public boolean isExact(){
+		return mMeasuredCount == mCount;
+	}
+
+	/**
+	 * @return measured extent of item, or estimate if item was not measured yet or position is out of index
+	 */
+	public int getExtent(int position){
+		if(position < 0 || position >= mCount) return getEstimatedExtent();
+		final int e = mExtents[position];
+		return e != NOT_MEASURED ? e : getEstimatedExtent();
+	}
+
+	/**
+	 * Sets extent used for items, which were not measured yet
+	 * @param extent estimated extent, or value <= 0 to use average of measured items
+	 */
+	public void setEstimatedExtent(int extent){
+		mFixedEstimate = extent > 0 ? extent : NOT_MEASURED;
+	}
+
+	public int getEstimatedExtent(){
+		if(mFixedEstimate != NOT_MEASURED) return mFixedEstimate;
+		if(mMeasuredCount == 0) return mDefaultEstimate;
+		return (int) (mMeasuredSum / mMeasuredCount);
+	}
+
+	/**
+	 * @param position 0 - count
+	 * @return Sum of extents of all items before position
+	 */
+	public int getOffset(int position){
+		if(position <= 0) return 0;
+		if(position > mCount) position = mCount;
+		if(mMeasuredCount == 0) return position * getEstimatedExtent();
+
+		int measured = 0;
+		int measuredCount = 0;
+		for(int i = position; i > 0; i -= i & -i){
+			measured += mMeasuredTree[i];
+			measuredCount += mMeasuredCountTree[i];
+		}
+		return measured + (position - measuredCount) * getEstimatedExtent();
+	}
+
+	/**
+	 * @return sum of extents of all items
+	 */
+	public int getTotalExtent(){
+		return (int) (mMeasuredSum + (long)(mCount - mMeasuredCount) * getEstimatedExtent());
+	}
+
+	/**
+	 * Finds item, which covers given offset
+	 * @return position of item or -1 if index is empty
+	 */
+	public int getPositionAt(int offset){
+		if(mCount == 0) return -1;
+		if(offset <= 0) return 0;
+
+		final int estimate = getEstimatedExtent();
+		if(mMeasuredCount == 0) return estimate > 0 ? Math.min(offset / estimate, mCount - 1) : 0;
+
+		int position = 0;
+		int rest = offset;
+		for(int step = Integer.highestOneBit(mCount); step > 0; step >>= 1){
+			final int next = position + step;
+			if(next > mCount) continue;
+
+			//node next covers exactly items (position, next]
+			final int sum = mMeasuredTree[next] + (step - mMeasuredCountTree[next]) * estimate;
+			if(sum <= rest){
+				position = next;
+				rest -= sum;
+			}
+		}
+
+		return position < mCount ? position : mCount - 1;
+	}
+
+	private void update(int[] tree, int position, int delta){
+		for(int i = position + 1; i <= mCount; i += i & -i){
+			tree[i] += delta;
+		}
+	}
+}
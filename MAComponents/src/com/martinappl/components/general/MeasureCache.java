@@ -0,0 +1,136 @@
+package com.martinappl.components.general;
+
+import java.util.Arrays;
+
+/**
+ * @author Martin Appl
+ *
+ * Remembers measured sizes of views by item id and view type. Open addressing hash table in primitive arrays, 
+ * so lookups during scrolling don't allocate. Clear is O(1), entries of previous generation are treated as empty.
+ */
+public class MeasureCache {
+	private static final int DEFAULT_CAPACITY = 64;
+	
+	private long[] mIds;
+	private int[] mTypes;
+	private int[] mWidths;
+	private int[] mHeights;
+	/** Entry is valid only if its generation is current generation */
+	private int[] mGenerations;
+	
+	private int mGeneration = 1;
+	private int mSize;
+	
+	private int mLastWidth;
+	private int mLastHeight;
+	
+	public MeasureCache(){
+		allocate(DEFAULT_CAPACITY);
+	}
+	
+	private void allocate(int capacity){
+		mIds = new long[capacity];
+		mTypes = new int[capacity];
+		mWidths = new int[capacity];
+		mHeights = new int[capacity];
+		mGenerations = new int[capacity];
+		mSize = 0;
+	}
+	
+	/**
+	 * Looks up size of item. If found, size is available from getWidth() and getHeight()
+	 * @return true if size of item is cached
+	 */
+	public boolean get(long id, int viewType){
+		final int i = find(id, viewType);
+		if(i < 0 || mWidths[i] < 0) return false;
+		
+		mLastWidth = mWidths[i];
+		mLastHeight = mHeights[i];
+		return true;
+	}
+	
+	/**
+	 * @return width found by last successful get()
+	 */
+	public int getWidth(){
+		return mLastWidth;
+	}
+	
+	/**
+	 * @return height found by last successful get()
+	 */
+	public int getHeight(){
+		return mLastHeight;
+	}
+	
+	public void put(long id, int viewType, int width, int height){
+		if(mSize * 2 >= mIds.length) grow();
+		
+		int i = find(id, viewType);
+		if(i < 0){
+			i = ~i;
+			mIds[i] = id;
+			mTypes[i] = viewType;
+			mGenerations[i] = mGeneration;
+			mSize++;
+		}
+		mWidths[i] = width;
+		mHeights[i] = height;
+	}
+	
+	/**
+	 * Forgets size of one item
+	 */
+	public void invalidate(long id, int viewType){
+		final int i = find(id, viewType);
+		if(i >= 0) mWidths[i] = -1; //slot stays occupied to keep probe chains intact
+	}
+	
+	/**
+	 * Forgets all sizes
+	 */
+	public void clear(){
+		mGeneration++;
+		mSize = 0;
+		if(mGeneration == Integer.MAX_VALUE){
+			Arrays.fill(mGenerations, 0);
+			mGeneration = 1;
+		}
+	}
+	
+	/**
+	 * @return index of entry or ~index of empty slot where entry belongs
+	 */
+	private int find(long id, int viewType){
+		final int mask = mIds.length - 1;
+		int i = hash(id, viewType) & mask;
+		while(mGenerations[i] == mGeneration){
+			if(mIds[i] == id && mTypes[i] == viewType) return i;
+			i = (i + 1) & mask;
+		}
+		return ~i;
+	}
+	
+	private static int hash(long id, int viewType){
+		int h = (int) (id ^ (id >>> 32)) * 31 + viewType;
+		return h ^ (h >>> 16);
+	}
+	
+	private void grow(){
+		final long[] ids = mIds;
+		final int[] types = mTypes;
+		final int[] widths = mWidths;
+		final int[] heights = mHeights;
+		final int[] generations = mGenerations;
+		final int generation = mGeneration;
+		
+		allocate(ids.length * 2);
+		mGeneration = 1;
+		for(int i=0; i < ids.length; i++){
+			if(generations[i] == generation && widths[i] >= 0){
+				put(ids[i], types[i], widths[i], heights[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,414 @@
+package com.martinappl.components.general;
+
+import java.util.Arrays;
+
+/**
+ * @author Martin Appl
+ *
+ * Uniform grid over integer rectangles, for example tiles of content band in device specific pixels.
+ * Every item is registered in all cells it overlaps, so area query visits only cells covered by area and items in them.
+ * Cells are kept in one compact array (offsets of cells and items of cells), index is built once for whole data set.
+ * Items can be inserted, updated and removed later without rebuilding. Removed items are only marked in compact array and
+ * inserted items go to small per cell lists, compact array is rebuilt when these changes get too many.
+ *
+ * Query can consist of several areas, item is reported only once per query even if it overlaps more of them:
+ * <pre>
+ * 	index.startQuery();
+ * 	index.addArea(0, 0, 100, 20);
+ * 	index.addArea(0, 20, 50, 40);
+ * 	for(int i=0; i < index.getResultCount(); i++) index.getResult(i);
+ * </pre>
+ * Rectangles are left and top inclusive, right and bottom exclusive.
+ */
+public class SpatialGridIndex {
+	/** Limits number of cells, when items are sparse compared to their size */
+	private static final int MAX_CELLS_PER_ITEM = 4;
+
+	private static final byte STATE_ABSENT = 0;
+	/** Item is registered in compact array of cells */
+	private static final byte STATE_BASE = 1;
+	/** Item is registered in per cell lists of inserted items */
+	private static final byte STATE_INSERTED = 2;
+
+	private int mCount;
+	private int[] mLeft = new int[0];
+	private int[] mTop = new int[0];
+	private int[] mRight = new int[0];
+	private int[] mBottom = new int[0];
+	/** Item arrays belong to caller */
+	private boolean isWrapping;
+	private byte[] mStates = new byte[0];
+
+	private int mOriginX;
+	private int mOriginY;
+	private int mCellWidth = 1;
+	private int mCellHeight = 1;
+	private int mRequestedCellWidth = 1;
+	private int mRequestedCellHeight = 1;
+	private int mColumns;
+	private int mRows;
+	/** Items of cell c are in mCellItems from mCellStart[c] to mCellStart[c+1] */
+	private int[] mCellStart = new int[1];
+	private int[] mCellItems = new int[0];
+	/** Items inserted after build, lists are created for cells on demand */
+	private int[][] mInsertedItems;
+	private int[] mInsertedSizes;
+	/** Entries of removed items in compact array and entries in lists of inserted items */
+	private int mChangedEntries;
+
+	/** Item was already reported in query, when its stamp equals current query stamp */
+	private int[] mStamps = new int[0];
+	private int mQueryStamp;
+	private int[] mResults = new int[16];
+	private int mResultCount;
+
+	/**
+	 * Indexes items, item i has rectangle left[i], top[i], right[i], bottom[i]. Arrays are copied.
+	 * @param cellWidth width of grid cell, size of typical item works best
+	 * @param cellHeight height of grid cell
+	 */
+	public void build(int[] left, int[] top, int[] right, int[] bottom, int count, int cellWidth, int cellHeight){
+		Validate.isTrue(count >= 0 && count <= left.length && count <= top.length && count <= right.length && count <= bottom.length,
+				"Count is out of bounds of arrays: ", count);
+
+		if(isWrapping || mLeft.length < count){
+			mLeft = new int[count];
+			mTop = new int[count];
+			mRight = new int[count];
+			mBottom = new int[count];
+		}
+		System.arraycopy(left, 0, mLeft, 0, count);
+		System.arraycopy(top, 0, mTop, 0, count);
+		System.arraycopy(right, 0, mRight, 0, count);
+		System.arraycopy(bottom, 0, mBottom, 0, count);
+		isWrapping = false;
+		buildCells(count, cellWidth, cellHeight);
+	}
+
+	/**
+	 * Same as build, but arrays are not copied, index reads them directly. Saves memory when owner of arrays keeps them anyway,
+	 * first count values of arrays must not change until next build.
+	 */
+	public void buildWrapping(int[] left, int[] top, int[] right, int[] bottom, int count, int cellWidth, int cellHeight){
+		Validate.isTrue(count >= 0 && count <= left.length && count <= top.length && count <= right.length && count <= bottom.length,
+				"Count is out of bounds of arrays: ", count);
+
+		mLeft = left;
+		mTop = top;
+		mRight = right;
+		mBottom = bottom;
+		isWrapping = true;
+		buildCells(count, cellWidth, cellHeight);
+	}
+
+	private void buildCells(int count, int cellWidth, int cellHeight){
+		if(mStamps.length < count){
+			mStamps = new int[count];
+			mStates = new byte[count];
+		}
+		mCount = count;
+		mQueryStamp = 0;
+		mResultCount = 0;
+		for(int i=0; i < count; i++){
+			mStamps[i] = 0;
+			mStates[i] = STATE_BASE;
+		}
+		mRequestedCellWidth = cellWidth;
+		mRequestedCellHeight = cellHeight;
+		rebuildCells();
+	}
+
+	/**
+	 * Builds compact array from all present items
+	 */
+	private void rebuildCells(){
+		mInsertedItems = null;
+		mInsertedSizes = null;
+		mChangedEntries = 0;
+
+		int present = 0;
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+		for(int i=0; i < mCount; i++){
+			if(mStates[i] == STATE_ABSENT) continue;
+			mStates[i] = STATE_BASE;
+			present++;
+			minX = Math.min(minX, mLeft[i]);
+			minY = Math.min(minY, mTop[i]);
+			maxX = Math.max(maxX, Math.max(mLeft[i], mRight[i] - 1));
+			maxY = Math.max(maxY, Math.max(mTop[i], mBottom[i] - 1));
+		}
+
+		if(present == 0){
+			mColumns = 0;
+			mRows = 0;
+			mCellStart = new int[1];
+			mCellItems = new int[0];
+			return;
+		}
+
+		mOriginX = minX;
+		mOriginY = minY;
+		mCellWidth = Math.max(1, mRequestedCellWidth);
+		mCellHeight = Math.max(1, mRequestedCellHeight);
+
+		final long maxCells = (long) present * MAX_CELLS_PER_ITEM + 16;
+		while((long)((maxX - minX) / mCellWidth + 1) * ((maxY - minY) / mCellHeight + 1) > maxCells){
+			mCellWidth *= 2;
+			mCellHeight *= 2;
+		}
+		mColumns = (maxX - minX) / mCellWidth + 1;
+		mRows = (maxY - minY) / mCellHeight + 1;
+
+		//count items in cells, then turn counts to offsets and place items
+		final int cells = mColumns * mRows;
+		mCellStart = new int[cells + 1];
+		for(int i=0; i < mCount; i++){
+			if(mStates[i] == STATE_ABSENT) continue;
+			for(int row = getRow(mTop[i]); row <= getLastRow(i); row++){
+				for(int col = getColumn(mLeft[i]); col <= getLastColumn(i); col++){
+					mCellStart[row * mColumns + col + 1]++;
+				}
+			}
+		}
+		for(int c=0; c < cells; c++) mCellStart[c + 1] += mCellStart[c];
+
+		mCellItems = new int[mCellStart[cells]];
+		final int[] fill = new int[cells];
+		for(int i=0; i < mCount; i++){
+			if(mStates[i] == STATE_ABSENT) continue;
+			for(int row = getRow(mTop[i]); row <= getLastRow(i); row++){
+				for(int col = getColumn(mLeft[i]); col <= getLastColumn(i); col++){
+					final int c = row * mColumns + col;
+					mCellItems[mCellStart[c] + fill[c]++] = i;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return number of item slots, items are numbered from 0 to count - 1, some of them can be removed
+	 */
+	public int getCount(){
+		return mCount;
+	}
+
+	public boolean contains(int item){
+		return item >= 0 && item < mCount && mStates[item] != STATE_ABSENT;
+	}
+
+	/**
+	 * Adds item to index. Index must not be built by buildWrapping.
+	 * @param item number of item, slot must be free, item can be larger than count
+	 */
+	public void insert(int item, int left, int top, int right, int bottom){
+		Validate.isTrue(!isWrapping, "Index built by buildWrapping can not be changed");
+		Validate.isTrue(item >= 0 && !contains(item), "Item is already in index or negative: ", item);
+
+		if(item >= mCount) growItems(item + 1);
+		mLeft[item] = left;
+		mTop[item] = top;
+		mRight[item] = right;
+		mBottom[item] = bottom;
+		mStates[item] = STATE_INSERTED;
+		mStamps[item] = 0;
+
+		if(mColumns == 0){
+			rebuildCells();
+			return;
+		}
+
+		if(mInsertedItems == null){
+			mInsertedItems = new int[mColumns * mRows][];
+			mInsertedSizes = new int[mColumns * mRows];
+		}
+		for(int row = getRow(top); row <= getLastRow(item); row++){
+			for(int col = getColumn(left); col <= getLastColumn(item); col++){
+				addInserted(row * mColumns + col, item);
+			}
+		}
+		rebuildIfChangedTooMuch();
+	}
+
+	/**
+	 * Removes item from index
+	 */
+	public void remove(int item){
+		if(!contains(item)) return;
+		Validate.isTrue(!isWrapping, "Index built by buildWrapping can not be changed");
+
+		if(mStates[item] == STATE_INSERTED){
+			for(int row = getRow(mTop[item]); row <= getLastRow(item); row++){
+				for(int col = getColumn(mLeft[item]); col <= getLastColumn(item); col++){
+					removeInserted(row * mColumns + col, item);
+				}
+			}
+		}
+		else{
+			mChangedEntries += (getLastRow(item) - getRow(mTop[item]) + 1) * (getLastColumn(item) - getColumn(mLeft[item]) + 1);
+		}
+		mStates[item] = STATE_ABSENT;
+		rebuildIfChangedTooMuch();
+	}
+
+	/**
+	 * Changes rectangle of item, which is in index
+	 */
+	public void update(int item, int left, int top, int right, int bottom){
+		remove(item);
+		insert(item, left, top, right, bottom);
+	}
+
+	private void addInserted(int cell, int item){
+		int[] list = mInsertedItems[cell];
+		final int size = mInsertedSizes[cell];
+		if(list == null) list = mInsertedItems[cell] = new int[4];
+		else if(size == list.length) list = mInsertedItems[cell] = Arrays.copyOf(list, size * 2);
+
+		list[size] = item;
+		mInsertedSizes[cell]++;
+		mChangedEntries++;
+	}
+
+	private void removeInserted(int cell, int item){
+		final int[] list = mInsertedItems[cell];
+		final int size = mInsertedSizes[cell];
+		for(int j=0; j < size; j++){
+			if(list[j] == item){
+				list[j] = list[size - 1];
+				mInsertedSizes[cell]--;
+				mChangedEntries--;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Rebuild costs time proportional to size of compact array, so it is done after number of changes proportional to it
+	 */
+	private void rebuildIfChangedTooMuch(){
+		if(mChangedEntries > mCellItems.length / 2 + 64) rebuildCells();
+	}
+
+	private void growItems(int count){
+		final int capacity = Math.max(count, mLeft.length * 2);
+		if(mLeft.length < count){
+			mLeft = Arrays.copyOf(mLeft, capacity);
+			mTop = Arrays.copyOf(mTop, capacity);
+			mRight = Arrays.copyOf(mRight, capacity);
+			mBottom = Arrays.copyOf(mBottom, capacity);
+		}
+		if(mStamps.length < count){
+			mStamps = Arrays.copyOf(mStamps, capacity);
+			mStates = Arrays.copyOf(mStates, capacity);
+		}
+		for(int i = mCount; i < count; i++) mStates[i] = STATE_ABSENT;
+		mCount = count;
+	}
+
+	/**
+	 * Clears results of previous query
+	 */
+	public void startQuery(){
+		mResultCount = 0;
+		mQueryStamp++;
+		if(mQueryStamp == 0){
+			//stamp overflowed, old stamps could collide with new ones
+			for(int i=0; i < mCount; i++) mStamps[i] = 0;
+			mQueryStamp = 1;
+		}
+	}
+
+	/**
+	 * Adds to results items, which intersect area and were not reported since startQuery
+	 */
+	public void addArea(int left, int top, int right, int bottom){
+		if(mColumns == 0 || left >= right || top >= bottom) return;
+
+		final int firstCol = getColumn(left);
+		final int lastCol = getColumn(right - 1);
+		final int firstRow = getRow(top);
+		final int lastRow = getRow(bottom - 1);
+
+		for(int row = firstRow; row <= lastRow; row++){
+			for(int col = firstCol; col <= lastCol; col++){
+				final int c = row * mColumns + col;
+				for(int j = mCellStart[c]; j < mCellStart[c + 1]; j++){
+					final int i = mCellItems[j];
+					if(mStates[i] == STATE_BASE) addIfIntersects(i, left, top, right, bottom);
+				}
+				if(mInsertedItems != null && mInsertedItems[c] != null){
+					final int[] list = mInsertedItems[c];
+					for(int j = 0; j < mInsertedSizes[c]; j++) addIfIntersects(list[j], left, top, right, bottom);
+				}
+			}
+		}
+	}
+
+	private void addIfIntersects(int i, int left, int top, int right, int bottom){
+		if(mStamps[i] == mQueryStamp) return;
+		if(mLeft[i] < right && mRight[i] > left && mTop[i] < bottom && mBottom[i] > top){
+			mStamps[i] = mQueryStamp;
+			addResult(i);
+		}
+	}
+
+	/**
+	 * Adds to results items, which intersect parts of area outside of excluded rectangle. Items reaching from those parts
+	 * into excluded rectangle are reported too.
+	 */
+	public void addAreaAround(int left, int top, int right, int bottom, int exLeft, int exTop, int exRight, int exBottom){
+		if(exLeft >= exRight || exTop >= exBottom || exLeft >= right || exRight <= left || exTop >= bottom || exBottom <= top){
+			addArea(left, top, right, bottom);
+			return;
+		}
+
+		//left and right strips are full height, top and bottom strips are between them
+		final int l = Math.max(left, exLeft);
+		final int r = Math.min(right, exRight);
+		addArea(left, top, l, bottom);
+		addArea(r, top, right, bottom);
+		addArea(l, top, r, exTop);
+		addArea(l, exBottom, r, bottom);
+	}
+
+	public int getResultCount(){
+		return mResultCount;
+	}
+
+	/**
+	 * @return index of item in arrays passed to build
+	 */
+	public int getResult(int i){
+		return mResults[i];
+	}
+
+	private void addResult(int item){
+		if(mResultCount == mResults.length){
+			final int[] arr = new int[mResults.length * 2];
+			System.arraycopy(mResults, 0, arr, 0, mResultCount);
+			mResults = arr;
+		}
+		mResults[mResultCount++] = item;
+	}
+
+	private int getColumn(int x){
+		final int col = (x - mOriginX) / mCellWidth;
+		if(x < mOriginX) return 0;
+		return col < mColumns ? col : mColumns - 1;
+	}
+
+	/** Item with zero width still occupies column of its left edge */
+	private int getLastColumn(int item){
+		return getColumn(Math.max(mLeft[item], mRight[item] - 1));
+	}
+
+	private int getLastRow(int item){
+		return getRow(Math.max(mTop[item], mBottom[item] - 1));
+	}
+
+	private int getRow(int y){
+		final int row = (y - mOriginY) / mCellHeight;
+		if(y < mOriginY) return 0;
+		return row < mRows ? row : mRows - 1;
+	}
+}
@@ -135,6 +135,15 @@ public abstract class ToolBox {
 		}	
 	}
 	
+	/**
+	 * Integer division rounded towards negative infinity, unlike / which rounds towards zero
+	 * @param divisor must be positive
+	 */
+	public static int floorDiv(int dividend, int divisor){
+		final int q = dividend / divisor;
+		return dividend % divisor < 0 ? q - 1 : q;
+	}
+	
 	
 	 /**
      * Draw the view into a bitmap using drawing cache.
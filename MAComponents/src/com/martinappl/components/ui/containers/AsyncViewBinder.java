@@ -0,0 +1,244 @@
+package com.martinappl.components.ui.containers;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import android.annotation.SuppressLint;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.martinappl.components.ui.containers.interfaces.IAsyncAdapter;
+
+/**
+ * @author Martin Appl
+ *
+ * Inflates and binds item views of IAsyncAdapter on worker executor. Until view is ready, container shows placeholder.
+ * Finished views are committed on UI thread in display frames, each frame commits only so many views as fits in time budget.
+ * Request is cancelled when its placeholder leaves container.
+ */
+final class AsyncViewBinder {
+	static final int DEFAULT_COMMIT_BUDGET_MILLIS = 4;
+	
+	/**
+	 * Container side of binder
+	 */
+	interface Callback {
+		/**
+		 * Replace placeholder by view on UI thread
+		 * @return false if placeholder is not in container anymore
+		 */
+		boolean onAsyncViewReady(View placeholder, View view, int position);
+		
+		/**
+		 * View was bound for request, which was cancelled in meantime. It can be reused.
+		 */
+		void onAsyncViewDiscarded(View view, int position);
+	}
+	
+	private static ExecutorService sDefaultExecutor;
+	
+	private final ViewGroup mContainer;
+	private final IAsyncAdapter mAdapter;
+	private final Callback mCallback;
+	private Executor mExecutor;
+	private long mCommitBudgetNanos = DEFAULT_COMMIT_BUDGET_MILLIS * 1000000L;
+	
+	/** Requests by placeholder, which holds their place in container. Accessed only on UI thread */
+	private final HashMap<View, Request> mRequests = new HashMap<View, Request>();
+	/** Placeholders which left container, for reuse */
+	private final LinkedList<View> mPlaceholders = new LinkedList<View>();
+	/** Requests finished by worker, waiting for commit */
+	private final ConcurrentLinkedQueue<Request> mFinished = new ConcurrentLinkedQueue<Request>();
+	
+	private final AtomicBoolean mCommitScheduled = new AtomicBoolean();
+	/** Adapter was replaced, finished views are dropped */
+	private boolean mReleased;
+	private FrameCallbackV16 mFrameCallback;
+	
+	private final Runnable mScheduleCommit = new Runnable() {
+		@Override
+		public void run() {
+			postFrame();
+		}
+	};
+	
+	private final Runnable mFallbackFrame = new Runnable() {
+		@Override
+		public void run() {
+			commit();
+		}
+	};
+	
+	private class Request implements Runnable{
+		final int position;
+		final View placeholder;
+		final View convertView;
+		View result;
+		volatile boolean cancelled;
+		
+		Request(int position, View placeholder, View convertView){
+			this.position = position;
+			this.placeholder = placeholder;
+			this.convertView = convertView;
+		}
+
+		@Override
+		public void run() {
+			if(cancelled){
+				//view for reuse is handed back on UI thread as discarded
+				if(convertView == null) return;
+				result = convertView;
+			}
+			else{
+				result = mAdapter.getViewAsync(position, convertView, mContainer);
+			}
+			mFinished.add(this);
+			if(mCommitScheduled.compareAndSet(false, true)) mContainer.post(mScheduleCommit);
+		}
+	}
+	
+	@SuppressLint("NewApi")
+	private class FrameCallbackV16 implements Choreographer.FrameCallback{
+		@Override
+		public void doFrame(long frameTimeNanos) {
+			commit();
+		}
+	}
+	
+	AsyncViewBinder(ViewGroup container, IAsyncAdapter adapter, Callback callback){
+		mContainer = container;
+		mAdapter = adapter;
+		mCallback = callback;
+	}
+	
+	void setExecutor(Executor executor){
+		mExecutor = executor;
+	}
+	
+	void setCommitBudget(int millis){
+		mCommitBudgetNanos = millis * 1000000L;
+	}
+	
+	/**
+	 * Returns placeholder for item and starts inflating and binding of real view on worker
+	 * @param convertView view for reuse, it must not be attached to container
+	 */
+	View obtainView(int position, View convertView){
+		final View placeholder = mAdapter.getPlaceholderView(position, mPlaceholders.poll(), mContainer);
+		final Request r = new Request(position, placeholder, convertView);
+		mRequests.put(placeholder, r);
+		getExecutor().execute(r);
+		return placeholder;
+	}
+	
+	/**
+	 * Call when view is leaving container. If it is placeholder, its request is cancelled and placeholder is kept for reuse.
+	 * @return true if view was placeholder
+	 */
+	boolean recycle(View v){
+		final Request r = mRequests.remove(v);
+		if(r == null) return false;
+		
+		r.cancelled = true;
+		mPlaceholders.add(v);
+		return true;
+	}
+	
+	boolean isPlaceholder(View v){
+		return mRequests.containsKey(v);
+	}
+	
+	/**
+	 * Cancels all requests, use when container drops all children
+	 */
+	void cancelAll(){
+		for(Request r : mRequests.values()){
+			r.cancelled = true;
+			mPlaceholders.add(r.placeholder);
+		}
+		mRequests.clear();
+	}
+	
+	/**
+	 * Cancels all requests and drops views, which will be finished later. Use when adapter is replaced.
+	 */
+	void release(){
+		cancelAll();
+		mPlaceholders.clear();
+		mReleased = true;
+	}
+	
+	private Executor getExecutor(){
+		if(mExecutor != null) return mExecutor;
+		
+		synchronized (AsyncViewBinder.class) {
+			if(sDefaultExecutor == null){
+				sDefaultExecutor = Executors.newFixedThreadPool(2, new ThreadFactory() {
+					@Override
+					public Thread newThread(final Runnable r) {
+						final Thread t = new Thread(new Runnable() {
+							@Override
+							public void run() {
+								android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_BACKGROUND);
+								r.run();
+							}
+						}, "AsyncViewBinder");
+						t.setDaemon(true);
+						return t;
+					}
+				});
+			}
+			return sDefaultExecutor;
+		}
+	}
+	
+	@SuppressLint("NewApi")
+	private void postFrame(){
+		if(android.os.Build.VERSION.SDK_INT >= 16){
+			if(mFrameCallback == null) mFrameCallback = new FrameCallbackV16();
+			Choreographer.getInstance().postFrameCallback(mFrameCallback);
+		}
+		else{
+			mContainer.post(mFallbackFrame);
+		}
+	}
+	
+	/**
+	 * Swaps finished views into container until time budget of frame is spent. At least one view is committed in every frame.
+	 */
+	private void commit(){
+		mCommitScheduled.set(false);
+		if(mReleased){
+			mFinished.clear();
+			return;
+		}
+		final long start = System.nanoTime();
+		
+		Request r;
+		while((r = mFinished.poll()) != null){
+			if(r.cancelled || mRequests.get(r.placeholder) != r){
+				if(r.result != null) mCallback.onAsyncViewDiscarded(r.result, r.position);
+			}
+			else{
+				mRequests.remove(r.placeholder);
+				if(r.result == null || !mCallback.onAsyncViewReady(r.placeholder, r.result, r.position)){
+					if(r.result != null) mCallback.onAsyncViewDiscarded(r.result, r.position);
+				}
+				else{
+					mPlaceholders.add(r.placeholder);
+				}
+			}
+			
+			if(System.nanoTime() - start > mCommitBudgetNanos) break;
+		}
+		
+		if(!mFinished.isEmpty() && mCommitScheduled.compareAndSet(false, true)) postFrame();
+	}
+}
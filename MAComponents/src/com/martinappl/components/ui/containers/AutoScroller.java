@@ -0,0 +1,225 @@
+package com.martinappl.components.ui.containers;
+
+import android.annotation.SuppressLint;
+import android.view.Choreographer;
+import android.view.MotionEvent;
+
+/**
+ * @author Martin Appl
+ *
+ * Moves EndlessLoopAdapterContainer on its own, paced by display frames (Choreographer on API 16+,
+ * delayed runnable on older platforms). Works in two modes. Constant speed moves content given number of pixels per second,
+ * dwell mode rests on item for given time and then animates to the next one.
+ * Nothing is allocated per frame, touching the container pauses scrolling and it resumes after timeout.
+ */
+final class AutoScroller {
+	/** Content moves with constant speed */
+	static final int MODE_CONSTANT_SPEED = 0;
+	/** Content rests for dwell time on item and then advances to next one */
+	static final int MODE_DWELL = 1;
+
+	static final int DEFAULT_RESUME_DELAY = 3000;
+
+	/** Gaps between frames longer than this (jank, window hidden) are not turned into motion, to prevent jumps */
+	private static final long MAX_FRAME_GAP_NANOS = 100 * 1000000L;
+	private static final long FALLBACK_FRAME_DELAY = 16;
+
+	private final EndlessLoopAdapterContainer mContainer;
+
+	private int mMode = MODE_CONSTANT_SPEED;
+	private float mPixelsPerSecond;
+	private long mDwellNanos;
+	private boolean mForward = true;
+	private int mResumeDelay = DEFAULT_RESUME_DELAY;
+
+	/** Auto scroll was started and not stopped by user of container */
+	private boolean mRunning;
+	/** Auto scroll is temporarily stopped because of touch or detach from window */
+	private boolean mPaused;
+	private boolean mFramePosted;
+
+	private long mLastFrameNanos;
+	private long mDwellStartNanos;
+	/** Sub pixel part of distance, which was not applied in last frame */
+	private float mRemainder;
+
+	private FrameCallbackV16 mFrameCallback;
+
+	private final Runnable mFallbackFrame = new Runnable() {
+		@Override
+		public void run() {
+			doFrame(System.nanoTime());
+		}
+	};
+
+	private final Runnable mResume = new Runnable() {
+		@Override
+		public void run() {
+			mPaused = false;
+			if(mRunning) postFrame(0);
+		}
+	};
+
+	AutoScroller(EndlessLoopAdapterContainer container){
+		mContainer = container;
+	}
+
+	@SuppressLint("NewApi")
+	private class FrameCallbackV16 implements Choreographer.FrameCallback{
+		@Override
+		public void doFrame(long frameTimeNanos) {
+			AutoScroller.this.doFrame(frameTimeNanos);
+		}
+	}
+
+	void startConstantSpeed(float pixelsPerSecond){
+		mMode = MODE_CONSTANT_SPEED;
+		mPixelsPerSecond = pixelsPerSecond;
+		start();
+	}
+
+	void startDwell(int dwellMillis, boolean forward){
+		mMode = MODE_DWELL;
+		mDwellNanos = dwellMillis * 1000000L;
+		mForward = forward;
+		start();
+	}
+
+	private void start(){
+		removeCallbacks();
+		mRunning = true;
+		mPaused = false;
+		mLastFrameNanos = 0;
+		mDwellStartNanos = 0;
+		mRemainder = 0;
+		postFrame(0);
+	}
+
+	void stop(){
+		mRunning = false;
+		mPaused = false;
+		removeCallbacks();
+		mContainer.onAutoScrollStopped(true);
+	}
+
+	boolean isRunning(){
+		return mRunning;
+	}
+
+	void setResumeDelay(int millis){
+		mResumeDelay = millis;
+	}
+
+	/**
+	 * Pause on touch down, schedule resume when finger goes up
+	 */
+	void onTouchEvent(MotionEvent ev){
+		if(!mRunning) return;
+
+		switch (ev.getActionMasked()) {
+		case MotionEvent.ACTION_DOWN:
+			pause();
+			break;
+		case MotionEvent.ACTION_UP:
+		case MotionEvent.ACTION_CANCEL:
+			mContainer.removeCallbacks(mResume);
+			mContainer.postDelayed(mResume, mResumeDelay);
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Resume of pause, which was pending when container was detached, is scheduled again
+	 */
+	void onAttachedToWindow(){
+		if(!mRunning) return;
+		if(mPaused) mContainer.postDelayed(mResume, mResumeDelay);
+		else postFrame(0);
+	}
+
+	void onDetachedFromWindow(){
+		removeCallbacks();
+	}
+
+	private void pause(){
+		mPaused = true;
+		removeCallbacks();
+		mContainer.onAutoScrollStopped(false);
+	}
+
+	@SuppressLint("NewApi")
+	private void postFrame(long delayMillis){
+		if(mFramePosted) return;
+		mFramePosted = true;
+
+		if(android.os.Build.VERSION.SDK_INT >= 16){
+			if(mFrameCallback == null) mFrameCallback = new FrameCallbackV16();
+			Choreographer.getInstance().postFrameCallbackDelayed(mFrameCallback, delayMillis);
+		}
+		else{
+			mContainer.postDelayed(mFallbackFrame, delayMillis + FALLBACK_FRAME_DELAY);
+		}
+	}
+
+	@SuppressLint("NewApi")
+	private void removeCallbacks(){
+		mFramePosted = false;
+		mLastFrameNanos = 0;
+		mContainer.removeCallbacks(mResume);
+
+		if(android.os.Build.VERSION.SDK_INT >= 16){
+			if(mFrameCallback != null) Choreographer.getInstance().removeFrameCallback(mFrameCallback);
+		}
+		else{
+			mContainer.removeCallbacks(mFallbackFrame);
+		}
+	}
+
+	private void doFrame(long frameTimeNanos){
+		mFramePosted = false;
+		if(!mRunning || mPaused) return;
+
+		if(mMode == MODE_CONSTANT_SPEED) doConstantSpeedFrame(frameTimeNanos);
+		else doDwellFrame(frameTimeNanos);
+	}
+
+	private void doConstantSpeedFrame(long frameTimeNanos){
+		if(mLastFrameNanos != 0){
+			long dt = frameTimeNanos - mLastFrameNanos;
+			if(dt > MAX_FRAME_GAP_NANOS) dt = 0;
+
+			final float distance = mPixelsPerSecond * dt / 1000000000f + mRemainder;
+			final int dx = (int) distance;
+			mRemainder = distance - dx;
+
+			if(dx != 0 && !mContainer.autoScrollBy(dx)) mRemainder = 0;
+		}
+
+		mLastFrameNanos = frameTimeNanos;
+		postFrame(0);
+	}
+
+	private void doDwellFrame(long frameTimeNanos){
+		if(!mContainer.isAutoScrollIdle()){
+			//previous advance or alignment still animates, dwell time starts when it rests
+			mDwellStartNanos = 0;
+			postFrame(0);
+			return;
+		}
+
+		if(mDwellStartNanos == 0) mDwellStartNanos = frameTimeNanos;
+
+		final long rest = mDwellNanos - (frameTimeNanos - mDwellStartNanos);
+		if(rest <= 0){
+			mDwellStartNanos = 0;
+			mContainer.autoScrollAdvance(mForward);
+			postFrame(0);
+		}
+		else{
+			postFrame(rest / 1000000L);
+		}
+	}
+
+}
@@ -3,12 +3,16 @@ package com.martinappl.components.ui.containers;
 
 import java.lang.ref.WeakReference;
 import java.util.LinkedList;
+import java.util.concurrent.Executor;
 
+import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.database.DataSetObserver;
 import android.graphics.Point;
 import android.graphics.Rect;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.KeyEvent;
@@ -22,8 +26,10 @@ import android.widget.AdapterView;
 import android.widget.Scroller;
 
 import com.martinappl.components.R;
+import com.martinappl.components.general.ExtentIndex;
 import com.martinappl.components.general.ToolBox;
 import com.martinappl.components.general.Validate;
+import com.martinappl.components.ui.containers.interfaces.IAsyncAdapter;
 import com.martinappl.components.ui.containers.interfaces.IViewObserver;
 
 /**
@@ -73,6 +79,20 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
     protected static final int TOUCH_STATE_ALIGN = 4;
     
     protected static final int TOUCH_STATE_DISTANCE_SCROLL = 5;
+    
+    /** Container is moved by auto scroll in constant speed mode */
+    protected static final int TOUCH_STATE_AUTO_SCROLL = 6;
+    
+    /** When scroll offset gets over this value, coordinates are moved back near zero */
+    protected static final int SCROLL_REBASE_THRESHOLD = 1 << 20;
+    
+    /** Width estimate of items, until first item is measured */
+    protected static final int DEFAULT_ITEM_EXTENT = 200;
+    
+    /** Distance scrolls longer than this number of container widths jump over intermediate items */
+    protected static final int LONG_SCROLL_SCREENS = 2;
+    
+    protected static final int RUN_IN_DURATION = 120;
         
     /** A list of cached (re-usable) item views */
     protected final LinkedList<WeakReference<View>> mCachedItemViews = new LinkedList<WeakReference<View>>();
@@ -86,7 +106,34 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
     /** Position to scroll adapter only if is in endless mode. This is done after layout if we find out we are endless, we must relayout*/
     protected int mScrollPositionIfEndless = -1;
     
+    /** Offset of first item restored from saved state, applied on first fill */
+    private int mRestoredFirstItemOffset = NO_OFFSET;
+    private static final int NO_OFFSET = Integer.MIN_VALUE;
+    
     private IViewObserver mViewObserver;
+    
+    /** Prefix sums of item widths including margins, items not shown yet are estimated. Used to compute distance to far items */
+    protected final ExtentIndex mExtentIndex = new ExtentIndex(DEFAULT_ITEM_EXTENT);
+    
+    /** Position to which container animates in smooth scrollToPosition or -1 */
+    private int mScrollTargetPosition = -1;
+    
+    /** Position to which container jumps in next frame or -1 */
+    private int mScrollToPositionOnNextFrame = -1;
+    
+    /** Distance which remains to be scrolled after run in of long scroll finishes, container jumps over most of it */
+    private int mPendingJumpDistance;
+    
+    /** Pool of views shared with other containers, replaces mCachedItemViews when set */
+    private RecycledViewPool mRecycledViewPool;
+    
+    /** Binds views on worker thread, if adapter implements IAsyncAdapter */
+    private AsyncViewBinder mAsyncBinder;
+    private Executor mAsyncExecutor;
+    private int mAsyncCommitBudget = AsyncViewBinder.DEFAULT_COMMIT_BUDGET_MILLIS;
+    
+    /** Drives container in auto scroll mode, created on first use */
+    private AutoScroller mAutoScroller;
 	
 
 	protected int mTouchState = TOUCH_STATE_RESTING;
@@ -147,7 +194,9 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
 			synchronized(this){
 				mDataChanged = true;
 			}
-			invalidate();
+			mExtentIndex.setCount(mAdapter.getCount());
+			if(!mAdapter.hasStableIds()) mExtentIndex.clear();
+			scheduleFrameWork(FrameScheduler.WORK_DATA_CHANGED | FrameScheduler.WORK_INVALIDATE);
 		}
 
 		@Override
@@ -156,6 +205,55 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
 		}		
 	};
 	
+	/** Coalesces data change refills, scrolls and invalidations to one pass per frame */
+	private final FrameScheduler mFrameScheduler = new FrameScheduler(this, new FrameScheduler.Callback() {
+		@Override
+		public void onFrameWork(int work) {
+			EndlessLoopAdapterContainer.this.onFrameWork(work);
+		}
+	});
+	
+	private final AsyncViewBinder.Callback mAsyncCallback = new AsyncViewBinder.Callback() {
+		
+		@Override
+		public boolean onAsyncViewReady(View placeholder, View view, int position) {
+			final int index = indexOfChild(placeholder);
+			if(index < 0) return false;
+			
+			final LayoutParams lp = view.getLayoutParams();
+			final LoopLayoutParams params;
+			if(lp instanceof LoopLayoutParams) params = (LoopLayoutParams) lp;
+			else if(lp != null) params = createLayoutParams(lp);
+			else params = createLayoutParams(placeholder.getLayoutParams());
+			
+			final LoopLayoutParams plp = (LoopLayoutParams) placeholder.getLayoutParams();
+			final int left = placeholder.getLeft() - plp.leftMargin;
+			final int oldRight = placeholder.getRight() + plp.rightMargin;
+			
+			final boolean selected = placeholder.isSelected();
+			placeholder.setSelected(false);
+			removeViewInLayout(placeholder);
+			addViewInLayout(view, index, params, true);
+			view.setDrawingCacheEnabled(true);
+			view.setSelected(selected);
+			
+			//only swapped view is measured, real view may differ in width from placeholder, so children after it are moved
+			measureChild(view);
+			final int dx = layoutChildHorizontal(view, left, params) - oldRight;
+			if(dx != 0){
+				for(int i = index + 1; i < getChildCount(); i++) getChildAt(i).offsetLeftAndRight(dx);
+			}
+			mExtentIndex.setExtent(position, params.leftMargin + view.getMeasuredWidth() + params.rightMargin);
+			invalidate();
+			return true;
+		}
+		
+		@Override
+		public void onAsyncViewDiscarded(View view, int position) {
+			recycleView(view, position);
+		}
+	};
+	
 	
 	/**
 	 * Params describing position of child view in container
@@ -227,15 +325,113 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
 	}
 	
 	/**
-	 * Sets position in adapter of first shown item in container
+	 * Sets position in adapter of first shown item in container. Container is filled at new position in next frame,
+	 * repeated calls before it result in single refill at last position.
 	 * @param position
 	 */
 	public void scrollToPosition(int position){
 		if(position < 0 || position >= mAdapter.getCount()) throw new IndexOutOfBoundsException("Position must be in bounds of adapter values count");
 		
-		reset();
-		refillInternal(position-1, position);
-		invalidate();
+		mScrollToPositionOnNextFrame = position;
+		scheduleFrameWork(FrameScheduler.WORK_SCROLL | FrameScheduler.WORK_INVALIDATE);
+	}
+	
+	/**
+	 * Moves item on position to left edge of container. Distance to items, which were not shown yet is estimated and target is corrected, when item gets on screen.
+	 * In endless mode container moves in direction, in which target is closer.
+	 * @param smooth true to animate, false to jump without animation in next frame
+	 */
+	public void scrollToPosition(int position, boolean smooth){
+		if(!smooth || getChildCount() == 0){
+			scrollToPosition(position);
+			return;
+		}
+		if(position < 0 || position >= mAdapter.getCount()) throw new IndexOutOfBoundsException("Position must be in bounds of adapter values count");
+		if(!shouldRepeat && isSrollingDisabled) return;
+		
+		mScrollToPositionOnNextFrame = -1;
+		mScrollTargetPosition = position;
+		mScroller.forceFinished(true);
+		scroll(mLeftChildEdge + getDistanceToPosition(mFirstItemPosition, position) - getScrollX());
+	}
+	
+	/**
+	 * @return distance in pixels from left edge of item on position from to left edge of item on position to, shortest way around the loop if content repeats
+	 */
+	protected int getDistanceToPosition(int from, int to){
+		final int d = mExtentIndex.getOffset(to) - mExtentIndex.getOffset(from);
+		if(!shouldRepeat) return d;
+		
+		final int total = mExtentIndex.getTotalExtent();
+		final int forward = d >= 0 ? d : d + total;
+		final int backward = forward - total;
+		return forward <= -backward ? forward : backward;
+	}
+	
+	/**
+	 * Corrects end of running smooth scroll to exact position of target item, as soon as target item is laid out
+	 */
+	private void correctScrollTarget(){
+		if(mScrollTargetPosition == -1) return;
+		if(mTouchState != TOUCH_STATE_DISTANCE_SCROLL || mScroller.isFinished()){
+			mScrollTargetPosition = -1;
+			return;
+		}
+		
+		final View child = getChildForPosition(mScrollTargetPosition);
+		if(child == null) return;
+		
+		mScrollTargetPosition = -1;
+		final int x = child.getLeft() - ((LoopLayoutParams)child.getLayoutParams()).leftMargin;
+		if(x == mScroller.getFinalX()) return;
+		
+		final int from = mScroller.getCurrX();
+		final int remaining = Math.max(mScroller.getDuration() - mScroller.timePassed(), 0);
+		mScroller.forceFinished(true);
+		mScroller.startScroll(from, 0, x - from, 0, remaining);
+	}
+	
+	/**
+	 * @return child showing item on position closest to direction of running scroll, or null if it is not laid out
+	 */
+	private View getChildForPosition(int position){
+		final int c = getChildCount();
+		final int count = mAdapter.getCount();
+		final boolean forward = mScroller.getFinalX() >= getScrollX();
+		View found = null;
+		for(int i=0; i < c; i++){
+			if((mFirstItemPosition + i) % count == position){
+				found = getChildAt(i);
+				if(!forward) return found;
+			}
+		}
+		return found;
+	}
+	
+	/**
+	 * @return position of first item in adapter as fraction of all items widths, 0 - 1. Use to draw fast scroll thumb.
+	 */
+	public float getScrollFraction(){
+		final int total = mExtentIndex.getTotalExtent();
+		if(total <= 0 || getChildCount() == 0) return 0;
+		
+		final float x = mExtentIndex.getOffset(mFirstItemPosition) + getScrollX() - mLeftChildEdge;
+		return Math.max(0f, Math.min(1f, x / total));
+	}
+	
+	/**
+	 * @return adapter position of item, which is at given fraction of all items widths
+	 */
+	public int getPositionForScrollFraction(float fraction){
+		final int x = (int) (mExtentIndex.getTotalExtent() * Math.max(0f, Math.min(1f, fraction)));
+		return mExtentIndex.getPositionAt(x);
+	}
+	
+	/**
+	 * @return sum of widths of all items in adapter, widths of items which were not shown yet are estimated
+	 */
+	public int getContentWidth(){
+		return mExtentIndex.getTotalExtent();
 	}
 	
 	public void scrollToPositionIfEndless(int position){
@@ -301,6 +497,18 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
 			setViewObserver((IViewObserver) adapter);
 		}
 		
+		if(mAsyncBinder != null) mAsyncBinder.release();
+		if(adapter instanceof IAsyncAdapter){
+			mAsyncBinder = new AsyncViewBinder(this, (IAsyncAdapter) adapter, mAsyncCallback);
+			mAsyncBinder.setExecutor(mAsyncExecutor);
+			mAsyncBinder.setCommitBudget(mAsyncCommitBudget);
+		}
+		else{
+			mAsyncBinder = null;
+		}
+		
+		mExtentIndex.setCount(adapter.getCount());
+		mExtentIndex.clear();
 		reset();
 		refill();
 		invalidate();
@@ -354,6 +562,7 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
 	
 	private void reset() {
 		scrollTo(0, 0);
+		cancelAsyncBinding();
 		removeAllViewsInLayout();
 		mFirstItemPosition = 0;
 		mLastItemPosition = -1;
@@ -374,6 +583,11 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
 		if (mScroller.computeScrollOffset()) {
 			if(mScroller.getFinalX() == mScroller.getCurrX()){
 				mScroller.abortAnimation();
+				if(mPendingJumpDistance != 0 && mTouchState == TOUCH_STATE_DISTANCE_SCROLL){
+					scrollTo(mScroller.getCurrX(), 0);
+					jumpAndSettle();
+					return;
+				}
 				mTouchState = TOUCH_STATE_RESTING;
 				if(!checkScrollPosition())
 					clearChildrenCache();
@@ -385,23 +599,25 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
 		    
             postInvalidate();
         }
+		else if(mPendingJumpDistance != 0 && mTouchState == TOUCH_STATE_DISTANCE_SCROLL){
+			jumpAndSettle();
+			return;
+		}
 		else if(mTouchState == TOUCH_STATE_FLING || mTouchState == TOUCH_STATE_DISTANCE_SCROLL){
 			mTouchState = TOUCH_STATE_RESTING;
 			if(!checkScrollPosition())
 				clearChildrenCache();
 		}
 		
-		if(mDataChanged){
-			removeAllViewsInLayout();
-			refillOnChange(mFirstItemPosition);
-			return;
-		}
+		//frame work can run after draw when it falls back to post() below API 16, children must not be laid out against changed data
+		if(mDataChanged) onFrameWork(FrameScheduler.WORK_DATA_CHANGED);
 		
+		rebaseScrollOriginIfNeeded();
 		relayout();
 		removeNonVisibleViews();
 		refillRight();
 		refillLeft();
-
+		correctScrollTarget();
 	}
 
 	/**
@@ -415,6 +631,7 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
 	 */
 	public void fling(int velocityX, int velocityY){
 		mTouchState = TOUCH_STATE_FLING;
+		mPendingJumpDistance = 0;
 		final int x = getScrollX();
 		final int y = getScrollY();
 		
@@ -428,10 +645,231 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
 	 * @param dx
 	 */
 	public void scroll(int dx){
-		mScroller.startScroll(getScrollX(), 0, dx, 0, SCROLLING_DURATION);
+		if(Math.abs(dx) > LONG_SCROLL_SCREENS * getWidth() && getChildCount() != 0 && !isSrollingDisabled){
+			//long distance, items in the middle would pass screen faster than they can be drawn, so only run in and last screen is animated
+			final int runIn = (dx > 0 ? 1 : -1) * getWidth() / 4;
+			mPendingJumpDistance = dx - runIn;
+			mScroller.startScroll(getScrollX(), 0, runIn, 0, RUN_IN_DURATION);
+		}
+		else{
+			mPendingJumpDistance = 0;
+			mScroller.startScroll(getScrollX(), 0, dx, 0, SCROLLING_DURATION);
+		}
 		mTouchState = TOUCH_STATE_DISTANCE_SCROLL;
 		invalidate();
 	}
+	
+	/**
+	 * @return scroll position at which running distance scroll ends, including distance which will be jumped over, or current position when resting
+	 */
+	protected int getScrollTargetX(){
+		if(mTouchState == TOUCH_STATE_DISTANCE_SCROLL && !mScroller.isFinished()) return mScroller.getFinalX() + mPendingJumpDistance;
+		else return getScrollX();
+	}
+	
+	/**
+	 * Second phase of long scroll. Jumps close to destination and animates last container width of distance
+	 */
+	private void jumpAndSettle(){
+		final int remaining = mPendingJumpDistance;
+		mPendingJumpDistance = 0;
+		
+		final int settle = remaining > 0 ? Math.min(remaining, getWidth()) : Math.max(remaining, -getWidth());
+		jumpTo(getScrollX() + remaining - settle);
+		
+		mScroller.startScroll(getScrollX(), 0, settle, 0, SCROLLING_DURATION);
+		invalidate();
+	}
+	
+	/**
+	 * Moves content to scroll position x without binding items between current position and x. Position of item at x is found
+	 * in extent index, container is emptied and filled again from this item.
+	 */
+	protected void jumpTo(int x){
+		final int total = mExtentIndex.getTotalExtent();
+		if(total <= 0 || getChildCount() == 0){
+			scrollTo(x, 0);
+			return;
+		}
+		
+		int offset = (mExtentIndex.getOffset(mFirstItemPosition) + x - mLeftChildEdge) % total;
+		if(offset < 0) offset += total;
+		final int position = mExtentIndex.getPositionAt(offset);
+		final int intra = offset - mExtentIndex.getOffset(position);
+		
+		recycleAllChildren();
+		scrollTo(0, 0);
+		fillFirstTime(position - 1, position);
+		scrollTo(mLeftChildEdge + intra, 0);
+	}
+	
+	/**
+	 * Removes all children from container and puts them to cache of views for reuse
+	 */
+	protected void recycleAllChildren(){
+		final int count = mAdapter.getCount();
+		View child;
+		for(int i = getChildCount() - 1; i >= 0; i--){
+			child = getChildAt(i);
+			child.setSelected(false);
+			removeViewInLayout(child);
+			if(mViewObserver != null) mViewObserver.onViewRemovedFromParent(child, (mFirstItemPosition + i) % count);
+			recycleView(child, (mFirstItemPosition + i) % count);
+		}
+	}
+	
+	/**
+	 * Starts moving content with constant speed. Speed is paced by display frames, so motion is smooth.
+	 * Touch pauses movement, it continues after delay set by setAutoScrollResumeDelay()
+	 * @param pixelsPerSecond speed of movement, negative values scroll towards beginning of adapter
+	 */
+	public void startAutoScroll(float pixelsPerSecond){
+		getAutoScroller().startConstantSpeed(pixelsPerSecond);
+	}
+	
+	/**
+	 * Starts auto scroll which rests on item for dwell time and then animates to next one.
+	 * Touch pauses movement, it continues after delay set by setAutoScrollResumeDelay()
+	 * @param dwellMillis how long stays content still between two advances
+	 * @param forward true to advance towards end of adapter
+	 */
+	public void startAutoScrollDwell(int dwellMillis, boolean forward){
+		getAutoScroller().startDwell(dwellMillis, forward);
+	}
+	
+	/**
+	 * Stops auto scroll started by startAutoScroll or startAutoScrollDwell
+	 */
+	public void stopAutoScroll(){
+		if(mAutoScroller != null) mAutoScroller.stop();
+	}
+	
+	public boolean isAutoScrollRunning(){
+		return mAutoScroller != null && mAutoScroller.isRunning();
+	}
+	
+	/**
+	 * @param millis How long after user touch ends is auto scroll resumed
+	 */
+	public void setAutoScrollResumeDelay(int millis){
+		getAutoScroller().setResumeDelay(millis);
+	}
+	
+	private AutoScroller getAutoScroller(){
+		if(mAutoScroller == null) mAutoScroller = new AutoScroller(this);
+		return mAutoScroller;
+	}
+	
+	/**
+	 * Moves content by auto scroll in constant speed mode. Called once per frame.
+	 * @return false if container can't move now (user or other animation is scrolling it, or scrolling is disabled)
+	 */
+	boolean autoScrollBy(int dx){
+		if(mAdapter == null || getChildCount() == 0) return false;
+		if(!shouldRepeat && isSrollingDisabled) return false;
+		
+		if(mTouchState != TOUCH_STATE_AUTO_SCROLL){
+			if(mTouchState != TOUCH_STATE_RESTING || !mScroller.isFinished()) return false;
+			mTouchState = TOUCH_STATE_AUTO_SCROLL;
+			enableChildrenCache();
+		}
+		
+		scrollBy(dx, 0);
+		return true;
+	}
+	
+	/**
+	 * @return true if content rests and auto scroll in dwell mode can advance
+	 */
+	boolean isAutoScrollIdle(){
+		return mTouchState == TOUCH_STATE_RESTING && mScroller.isFinished() && getChildCount() != 0;
+	}
+	
+	/**
+	 * Animates to next item in dwell mode of auto scroll. Default implementation aligns left edge of next item with left edge of container
+	 * @param forward true to move towards end of adapter
+	 */
+	protected void autoScrollAdvance(boolean forward){
+		if(!shouldRepeat && isSrollingDisabled) return;
+		
+		final int leftScreenEdge = getScrollX();
+		final int c = getChildCount();
+		View child;
+		LoopLayoutParams lp;
+		for(int i=0; i < c; i++){
+			child = getChildAt(i);
+			lp = (LoopLayoutParams) child.getLayoutParams();
+			final int left = child.getLeft() - lp.leftMargin;
+			final int right = child.getRight() + lp.rightMargin;
+			if(right > leftScreenEdge){
+				if(forward) scroll(right - leftScreenEdge);
+				else if(left < leftScreenEdge) scroll(left - leftScreenEdge);
+				else scroll(left - right);
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Called when auto scroll is paused by touch or stopped
+	 * @param stopped true if auto scroll was stopped and not just paused
+	 */
+	void onAutoScrollStopped(boolean stopped){
+		if(mTouchState != TOUCH_STATE_AUTO_SCROLL) return;
+		
+		mTouchState = TOUCH_STATE_RESTING;
+		if(stopped){
+			if(!checkScrollPosition()) clearChildrenCache();
+		}
+	}
+	
+	/**
+	 * In endless mode scroll offset grows without limits while user scrolls in one direction. When it gets over threshold,
+	 * origin of coordinates is moved to left edge of first child. Running fling is continued from shifted position with its current velocity.
+	 * Other animations are short, rebase waits until they finish.
+	 */
+	protected void rebaseScrollOriginIfNeeded(){
+		if(Math.abs(getScrollX()) <= SCROLL_REBASE_THRESHOLD || getChildCount() == 0) return;
+		
+		final int dx = mLeftChildEdge;
+		if(!mScroller.isFinished()){
+			if(!shiftFling(mScroller, dx)) return;
+		}
+		offsetScrollOrigin(dx);
+	}
+	
+	/**
+	 * Restarts running fling from position shifted by dx, with same velocity and direction
+	 * @return false if scroller can't be shifted now
+	 */
+	@SuppressLint("NewApi")
+	private boolean shiftFling(Scroller scroller, int dx){
+		if(mTouchState != TOUCH_STATE_FLING || android.os.Build.VERSION.SDK_INT < 14) return false;
+		
+		final int x = scroller.getCurrX();
+		int velocity = (int) scroller.getCurrVelocity();
+		if(scroller.getFinalX() < x) velocity = -velocity;
+		
+		scroller.forceFinished(true);
+		scroller.fling(x - dx, 0, velocity, 0, Integer.MIN_VALUE,Integer.MAX_VALUE, Integer.MIN_VALUE,Integer.MAX_VALUE);
+		return true;
+	}
+	
+	/**
+	 * Moves origin of coordinates by given distance. Children and scroll position are shifted together, so nothing moves on screen.
+	 * Keeps coordinates small when content is scrolled in one direction for long time
+	 * @param dx distance to subtract from all horizontal coordinates
+	 */
+	protected void offsetScrollOrigin(int dx){
+		if(dx == 0) return;
+		
+		final int c = getChildCount();
+		for(int i=0; i < c; i++){
+			getChildAt(i).offsetLeftAndRight(-dx);
+		}
+		mLeftChildEdge -= dx;
+		scrollTo(getScrollX() - dx, 0);
+	}
 
 	@Override
 	protected void onLayout(boolean changed, int left, int top, int right,
@@ -465,7 +903,14 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
 	    }
 	    		
 		if(getChildCount() == 0){
-			fillFirstTime(lastItemPos, firstItemPos);
+			if(mScrollPositionIfEndless > 0 && mScrollPositionIfEndless < mAdapter.getCount()) fillFirstTimeAtPositionIfEndless(lastItemPos, firstItemPos);
+			else fillFirstTime(lastItemPos, firstItemPos);
+			
+			if(mRestoredFirstItemOffset != NO_OFFSET){
+				if(!isSrollingDisabled) scrollTo(mLeftChildEdge + mRestoredFirstItemOffset, 0);
+				mRestoredFirstItemOffset = NO_OFFSET;
+			}
+			mScrollPositionIfEndless = -1;
 		}
 		else{
 			relayout();
@@ -475,6 +920,23 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
 		}
 	}
 	
+	/**
+	 * Fills container starting by item on mScrollPositionIfEndless, so only views around this position are bound.
+	 * If items are not enough to fill container, content is not endless and container is filled again from given position.
+	 */
+	private void fillFirstTimeAtPositionIfEndless(final int lastItemPos,final int firstItemPos){
+		final int p = mScrollPositionIfEndless;
+		mScrollPositionIfEndless = -1;
+		
+		fillFirstTime(p - 1, p);
+		if(getChildCount() != 0 && getChildAt(getChildCount() - 1).getRight() >= getWidth()) return;
+		
+		//not endless, all items fit to screen and are already bound, so refill costs only layout
+		recycleAllChildren();
+		scrollTo(0, 0);
+		fillFirstTime(lastItemPos, firstItemPos);
+	}
+	
 	/**
 	 * Check if container visible area is filled and refill empty areas
 	 */
@@ -603,10 +1065,12 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
 				return;
 			}
 			
-			child = mAdapter.getView(mLastItemPosition, getCachedView(), this);
+			child = obtainView(mLastItemPosition);
       Validate.notNull(child,"Your adapter has returned null from getView.");
 			child = addAndMeasureChildHorizontal(child, LAYOUT_MODE_AFTER);
+			final int l = left;
 			left = layoutChildHorizontal(child, left, (LoopLayoutParams) child.getLayoutParams());
+			mExtentIndex.setExtent(mLastItemPosition, left - l);
 			right = child.getRight();
 			
 			//if selected view is going to screen, set selected state on him
@@ -616,12 +1080,6 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
 			
 		}
 		
-		if(mScrollPositionIfEndless > 0){
-			final int p = mScrollPositionIfEndless;
-			mScrollPositionIfEndless = -1;
-			removeAllViewsInLayout();
-			refillOnChange(p);				
-		}
 	}	
 	
 	
@@ -642,10 +1100,12 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
 			mLastItemPosition++;
 			if(mLastItemPosition >= mAdapter.getCount()) mLastItemPosition = 0;
 			
-			child = mAdapter.getView(mLastItemPosition, getCachedView(), this);
+			child = obtainView(mLastItemPosition);
       Validate.notNull(child,"Your adapter has returned null from getView.");
 			child = addAndMeasureChildHorizontal(child, LAYOUT_MODE_AFTER);
+			final int l = currLayoutLeft;
 			currLayoutLeft = layoutChildHorizontal(child, currLayoutLeft, (LoopLayoutParams) child.getLayoutParams());
+			mExtentIndex.setExtent(mLastItemPosition, currLayoutLeft - l);
 			right = child.getRight();
 			
 			//if selected view is going to screen, set selected state on him
@@ -671,10 +1131,12 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
 			mFirstItemPosition--;
 			if(mFirstItemPosition < 0) mFirstItemPosition = mAdapter.getCount()-1;
 			
-			child = mAdapter.getView(mFirstItemPosition, getCachedView(), this);
+			child = obtainView(mFirstItemPosition);
       Validate.notNull(child,"Your adapter has returned null from getView.");
 			child = addAndMeasureChildHorizontal(child, LAYOUT_MODE_TO_BEFORE);
+			final int r = currLayoutRight;
 			currLayoutRight = layoutChildHorizontalToBefore(child, currLayoutRight, (LoopLayoutParams) child.getLayoutParams());
+			mExtentIndex.setExtent(mFirstItemPosition, r - currLayoutRight);
 			childLeft = child.getLeft() - ((LoopLayoutParams)child.getLayoutParams()).leftMargin;
 			//update left edge of children in container
 			mLeftChildEdge = childLeft;
@@ -735,8 +1197,7 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
             removeViewInLayout(firstChild); 
             
             if(mViewObserver != null) mViewObserver.onViewRemovedFromParent(firstChild, mFirstItemPosition);
-            WeakReference<View> ref = new WeakReference<View>(firstChild);
-            mCachedItemViews.addLast(ref);            
+            recycleView(firstChild, mFirstItemPosition);
             
             mFirstItemPosition++;
             if(mFirstItemPosition >= mAdapter.getCount()) mFirstItemPosition = 0;
@@ -763,8 +1224,7 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
             removeViewInLayout(lastChild);
             
             if(mViewObserver != null) mViewObserver.onViewRemovedFromParent(lastChild, mLastItemPosition);
-            WeakReference<View> ref = new WeakReference<View>(lastChild);
-            mCachedItemViews.addLast(ref);
+            recycleView(lastChild, mLastItemPosition);
             
             mLastItemPosition--;
             if(mLastItemPosition < 0) mLastItemPosition = mAdapter.getCount()-1;
@@ -1050,6 +1510,7 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
             if (!mScroller.isFinished()) {
                 mScroller.forceFinished(true);
             }
+            mPendingJumpDistance = 0;
 
             // Remember where the motion event started
             mLastMotionX = x;
@@ -1172,6 +1633,109 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
         return true;
 	}
 		
+	@Override
+	public boolean dispatchTouchEvent(MotionEvent ev) {
+		notifyAutoScrollerOfTouch(ev);
+		return super.dispatchTouchEvent(ev);
+	}
+	
+	/**
+	 * Auto scroll pauses when user touches container. Subclasses which don't call super.dispatchTouchEvent must call this.
+	 */
+	protected void notifyAutoScrollerOfTouch(MotionEvent ev){
+		if(mAutoScroller != null) mAutoScroller.onTouchEvent(ev);
+	}
+	
+	@Override
+	protected Parcelable onSaveInstanceState() {
+		final SavedState ss = new SavedState(super.onSaveInstanceState());
+		ss.firstItemPosition = mFirstItemPosition;
+		ss.firstItemOffset = getChildCount() != 0 ? getScrollX() - mLeftChildEdge : 0;
+		ss.selectedPosition = mSelectedPosition;
+		return ss;
+	}
+	
+	@Override
+	protected void onRestoreInstanceState(Parcelable state) {
+		if(!(state instanceof SavedState)){
+			super.onRestoreInstanceState(state);
+			return;
+		}
+		
+		final SavedState ss = (SavedState) state;
+		super.onRestoreInstanceState(ss.getSuperState());
+		
+		//adapter may have less items than when state was saved
+		if(ss.selectedPosition < 0 || (mAdapter != null && ss.selectedPosition >= mAdapter.getCount())) mSelectedPosition = INVALID_POSITION;
+		else mSelectedPosition = ss.selectedPosition;
+		
+		if(getChildCount() == 0){
+			//restored before first layout, first fill binds only views at restored position
+			mScrollPositionIfEndless = ss.firstItemPosition;
+			mRestoredFirstItemOffset = ss.firstItemOffset;
+		}
+		else if(mAdapter != null && ss.firstItemPosition >= 0 && ss.firstItemPosition < mAdapter.getCount()){
+			//not through scrollToPosition, subclasses can defer it to next frame and offset would be applied before position change.
+			//Offset is applied by refill right after views at restored position are laid out
+			reset();
+			mRestoredFirstItemOffset = ss.firstItemOffset;
+			refillInternal(ss.firstItemPosition-1, ss.firstItemPosition);
+			invalidate();
+		}
+	}
+	
+	/**
+	 * Scroll position of container, persisted across configuration changes
+	 */
+	static class SavedState extends BaseSavedState {
+		int firstItemPosition;
+		int firstItemOffset;
+		int selectedPosition;
+		
+		SavedState(Parcelable superState) {
+			super(superState);
+		}
+		
+		private SavedState(Parcel in) {
+			super(in);
+			firstItemPosition = in.readInt();
+			firstItemOffset = in.readInt();
+			selectedPosition = in.readInt();
+		}
+		
+		@Override
+		public void writeToParcel(Parcel out, int flags) {
+			super.writeToParcel(out, flags);
+			out.writeInt(firstItemPosition);
+			out.writeInt(firstItemOffset);
+			out.writeInt(selectedPosition);
+		}
+		
+		public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+			@Override
+			public SavedState createFromParcel(Parcel in) {
+				return new SavedState(in);
+			}
+			
+			@Override
+			public SavedState[] newArray(int size) {
+				return new SavedState[size];
+			}
+		};
+	}
+	
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+		if(mAutoScroller != null) mAutoScroller.onAttachedToWindow();
+	}
+	
+	@Override
+	protected void onDetachedFromWindow() {
+		if(mAutoScroller != null) mAutoScroller.onDetachedFromWindow();
+		super.onDetachedFromWindow();
+	}
+		
 	@Override
 	public boolean onKeyDown(int keyCode, KeyEvent event) {
 		switch (keyCode) {
@@ -1215,6 +1779,92 @@ public class EndlessLoopAdapterContainer extends AdapterView<Adapter> {
 		}
 	}
 
+	/**
+	 * Adds work to next display frame. Work requested several times before frame runs only once.
+	 * @param work combination of FrameScheduler.WORK_ flags
+	 */
+	protected void scheduleFrameWork(int work){
+		mFrameScheduler.schedule(work);
+	}
+	
+	/**
+	 * Runs scheduled work. Called once per frame for each scheduled kind of work, data change before scroll.
+	 * @param work FrameScheduler.WORK_DATA_CHANGED or FrameScheduler.WORK_SCROLL
+	 */
+	protected void onFrameWork(int work){
+		if(work == FrameScheduler.WORK_DATA_CHANGED){
+			if(!mDataChanged || mAdapter == null) return;
+			mDataChanged = false;
+			
+			cancelAsyncBinding();
+			removeAllViewsInLayout();
+			refillOnChange(mFirstItemPosition);
+		}
+		else if(work == FrameScheduler.WORK_SCROLL){
+			final int position = mScrollToPositionOnNextFrame;
+			mScrollToPositionOnNextFrame = -1;
+			//data could change since request
+			if(position == -1 || mAdapter == null || position >= mAdapter.getCount()) return;
+			
+			reset();
+			refillInternal(position-1, position);
+		}
+	}
+	
+	/**
+	 * Returns view for item. When adapter binds asynchronously, placeholder is returned and real view replaces it later.
+	 */
+	protected View obtainView(int position){
+		if(mAsyncBinder != null) return mAsyncBinder.obtainView(position, getCachedView(position));
+		else return mAdapter.getView(position, getCachedView(position), this);
+	}
+	
+	private View getCachedView(int position){
+		if(mRecycledViewPool != null) return mRecycledViewPool.get(mAdapter.getItemViewType(position));
+		else return getCachedView();
+	}
+	
+	/**
+	 * Puts view, which was removed from container to cache. Pending binding is cancelled, if view is placeholder.
+	 */
+	protected void recycleView(View v, int position){
+		if(mAsyncBinder != null && mAsyncBinder.recycle(v)) return;
+		
+		if(mRecycledViewPool == null) mCachedItemViews.addLast(new WeakReference<View>(v));
+		else if(position >= 0 && position < mAdapter.getCount()) mRecycledViewPool.put(mAdapter.getItemViewType(position), v);
+	}
+	
+	/**
+	 * Shares views for reuse with other containers attached to same pool. Pass null to use private cache of container.
+	 */
+	public void setRecycledViewPool(RecycledViewPool pool){
+		mRecycledViewPool = pool;
+	}
+	
+	public RecycledViewPool getRecycledViewPool(){
+		return mRecycledViewPool;
+	}
+	
+	private void cancelAsyncBinding(){
+		if(mAsyncBinder != null) mAsyncBinder.cancelAll();
+	}
+	
+	/**
+	 * Executor on which IAsyncAdapter inflates and binds views. Shared pool of background threads is used if not set.
+	 */
+	public void setAsyncBindExecutor(Executor executor){
+		mAsyncExecutor = executor;
+		if(mAsyncBinder != null) mAsyncBinder.setExecutor(executor);
+	}
+	
+	/**
+	 * Time in milliseconds, which can be spent in one frame by swapping placeholders for views bound by IAsyncAdapter
+	 */
+	public void setAsyncCommitBudget(int millis){
+		mAsyncCommitBudget = millis;
+		if(mAsyncBinder != null) mAsyncBinder.setCommitBudget(millis);
+	}
+	
 	/**
 	 * Check if list of weak references has any view still in memory to offer for recyclation
 	 * @return cached view
@@ -48,6 +48,13 @@ import com.martinappl.components.general.Validate;
 public class FeatureCoverFlow extends EndlessLoopAdapterContainer implements ViewTreeObserver.OnPreDrawListener {
 	public static final int DEFAULT_MAX_CACHE_SIZE = 32;
 	
+	/** How long D-pad key must be held before navigation starts to accelerate */
+	private static final int KEY_ACCELERATION_DELAY = 500;
+	/** Hold time after which number of covers moved per key repeat grows by one */
+	private static final int KEY_ACCELERATION_INTERVAL = 400;
+	/** Maximal number of covers moved per key repeat */
+	private static final int KEY_MAX_STEPS = 6;
+	
 	/**
      * Graphics Camera used for generating transformation matrices;
      */
@@ -171,6 +178,10 @@ public class FeatureCoverFlow extends EndlessLoopAdapterContainer implements Vie
 	
 	private int mScrollToPositionOnNextInvalidate = -1;
 	
+	/** D-pad key is held long enough to move several covers per repeat, covers not rendered yet are drawn as placeholders */
+	private boolean mFastKeyNavigation;
+	private final Paint mPlaceholderPaint = new Paint();
+	
 	
 	private boolean mInvalidated = false;
 	
@@ -279,6 +290,7 @@ public class FeatureCoverFlow extends EndlessLoopAdapterContainer implements Vie
 			cover.getViewTreeObserver().addOnPreDrawListener(FeatureCoverFlow.this);
 			
 			addView(cover,lp);
+			mReflectionCacheInvalid = true;
 		}
 
 		@Override
@@ -293,7 +305,7 @@ public class FeatureCoverFlow extends EndlessLoopAdapterContainer implements Vie
 			final Bitmap b = super.getDrawingCache(autoScale);
 
 			if(mReflectionCacheInvalid){
-				if((mTouchState != TOUCH_STATE_FLING && mTouchState != TOUCH_STATE_ALIGN) || mReflectionCache == null){
+				if((mTouchState != TOUCH_STATE_FLING && mTouchState != TOUCH_STATE_ALIGN && mTouchState != TOUCH_STATE_AUTO_SCROLL) || mReflectionCache == null){
 					try{
 						mReflectionCache = createReflectionBitmap(b);
 						mReflectionCacheInvalid = false;
@@ -442,23 +454,15 @@ public class FeatureCoverFlow extends EndlessLoopAdapterContainer implements Vie
 		
 		super.dispatchDraw(canvas);
 		
-		if(mScrollToPositionOnNextInvalidate != -1 && mAdapter != null && mAdapter.getCount() > 0){			
-			final int lastCenterItemPosition = (mFirstItemPosition + mLastCenterItemIndex) % mAdapter.getCount();
-			final int di = lastCenterItemPosition - mScrollToPositionOnNextInvalidate;
-			mScrollToPositionOnNextInvalidate = -1;
-			if(di != 0){
-				final int dst = (int) (di * mCoverWidth * mSpacing) - mCenterItemOffset;
-				scrollBy(-dst, 0);
-				shouldRepeat = true;
-				postInvalidate();
-				return;
-			}
+		//scrolling from draw would cause another draw pass, scroll is done before next frame is drawn
+		if(mScrollToPositionOnNextInvalidate != -1 && mAdapter != null && mAdapter.getCount() > 0){
+			scheduleFrameWork(FrameScheduler.WORK_SCROLL | FrameScheduler.WORK_INVALIDATE);
+			return;
 		}
 		
 		//make sure we never stay unaligned after last draw in resting state
 		if(mTouchState == TOUCH_STATE_RESTING && mCenterItemOffset != 0){
-			scrollBy(mCenterItemOffset, 0);
-			postInvalidate();
+			scheduleFrameWork(FrameScheduler.WORK_SCROLL | FrameScheduler.WORK_INVALIDATE);
 		}
 		
 		try {
@@ -476,10 +480,10 @@ public class FeatureCoverFlow extends EndlessLoopAdapterContainer implements Vie
 		
 		switch (keyCode) {
 		case KeyEvent.KEYCODE_DPAD_LEFT:
-			scroll((int) (-1 * mCoverWidth * mSpacing) - mCenterItemOffset);
+			navigateByKey(-1, event);
 			return true;
 		case KeyEvent.KEYCODE_DPAD_RIGHT:
-			scroll((int) (mCoverWidth * mSpacing) - mCenterItemOffset);
+			navigateByKey(1, event);
 			return true;
 		default:
 			break;
@@ -487,6 +491,65 @@ public class FeatureCoverFlow extends EndlessLoopAdapterContainer implements Vie
 		return super.onKeyDown(keyCode, event);
 	}
 	
+	@Override
+	public boolean onKeyUp(int keyCode, KeyEvent event) {
+		switch (keyCode) {
+		case KeyEvent.KEYCODE_DPAD_LEFT:
+		case KeyEvent.KEYCODE_DPAD_RIGHT:
+			if(mFastKeyNavigation){
+				mFastKeyNavigation = false;
+				invalidate();
+			}
+			return true;
+		default:
+			break;
+		}
+		return super.onKeyUp(keyCode, event);
+	}
+	
+	/**
+	 * Moves by number of covers growing with time for which key is held. Steps of repeated key events are merged to target of running scroll,
+	 * so animations don't pile up. Long distances are jumped over without binding covers in between.
+	 * @param direction -1 left, 1 right
+	 */
+	private void navigateByKey(int direction, KeyEvent event){
+		final int steps = getKeyRepeatSteps(event);
+		final boolean fast = steps > 1;
+		if(fast != mFastKeyNavigation){
+			mFastKeyNavigation = fast;
+			invalidate();
+		}
+		
+		final int step = (int) (mCoverWidth * mSpacing);
+		final int target;
+		if(mTouchState == TOUCH_STATE_DISTANCE_SCROLL && !mScroller.isFinished()) target = getScrollTargetX() + direction * steps * step;
+		else target = getScrollX() + direction * steps * step - mCenterItemOffset;
+		
+		mScroller.forceFinished(true);
+		scroll(target - getScrollX());
+	}
+	
+	private int getKeyRepeatSteps(KeyEvent event){
+		if(event.getRepeatCount() == 0) return 1;
+		
+		final long held = event.getEventTime() - event.getDownTime();
+		if(held < KEY_ACCELERATION_DELAY) return 1;
+		return Math.min(2 + (int) ((held - KEY_ACCELERATION_DELAY) / KEY_ACCELERATION_INTERVAL), KEY_MAX_STEPS);
+	}
+	
+	/**
+	 * Color of placeholders drawn instead of covers, which were not rendered yet, during accelerated D-pad navigation. Black by default.
+	 */
+	public void setPlaceholderColor(int color){
+		mPlaceholderPaint.setColor(color);
+	}
+	
+	@Override
+	protected void autoScrollAdvance(boolean forward) {
+		if(forward) scroll((int) (mCoverWidth * mSpacing) - mCenterItemOffset);
+		else scroll((int) (-1 * mCoverWidth * mSpacing) - mCenterItemOffset);
+	}
+	
 	@Override
 	protected void fillFirstTime(final int lastItemPos,final int firstItemPos){
 		final int leftScreenEdge = 0;
@@ -539,7 +602,9 @@ public class FeatureCoverFlow extends EndlessLoopAdapterContainer implements Vie
 			child = mAdapter.getView(mLastItemPosition, getCachedView(), this);
       Validate.notNull(child, "Your adapter has returned null from getView.");
 			child = addAndMeasureChildHorizontal(child, LAYOUT_MODE_AFTER);
+			final int l = left;
 			left = layoutChildHorizontal(child, left, (LoopLayoutParams) child.getLayoutParams());
+			mExtentIndex.setExtent(mLastItemPosition, left - l);
 			right = child.getRight();
 			
 			//if selected view is going to screen, set selected state on him
@@ -548,13 +613,6 @@ public class FeatureCoverFlow extends EndlessLoopAdapterContainer implements Vie
 			}
 			
 		}
-		
-		if(mScrollPositionIfEndless > 0){
-			final int p = mScrollPositionIfEndless;
-			mScrollPositionIfEndless = -1;
-			removeAllViewsInLayout();
-			refillOnChange(p);				
-		}
 	}
 
 	/**
@@ -576,7 +634,9 @@ public class FeatureCoverFlow extends EndlessLoopAdapterContainer implements Vie
 			
 			child = getViewAtPosition(mLastItemPosition);
 			child = addAndMeasureChildHorizontal(child, LAYOUT_MODE_AFTER);
+			final int l = currLayoutLeft;
 			currLayoutLeft = layoutChildHorizontal(child, currLayoutLeft, (LoopLayoutParams) child.getLayoutParams());
+			mExtentIndex.setExtent(mLastItemPosition, currLayoutLeft - l);
 			
 			//if selected view is going to screen, set selected state on him
 			if(mLastItemPosition == mSelectedPosition){
@@ -636,7 +696,9 @@ public class FeatureCoverFlow extends EndlessLoopAdapterContainer implements Vie
 				removeViewInLayout(child);
 			}
 			child = addAndMeasureChildHorizontal(child, LAYOUT_MODE_TO_BEFORE);
+			final int r = currLayoutRight;
 			currLayoutRight = layoutChildHorizontalToBefore(child, currLayoutRight, (LoopLayoutParams) child.getLayoutParams());
+			mExtentIndex.setExtent(mFirstItemPosition, r - currLayoutRight);
 
 			//update left edge of children in container
 			mLeftChildEdge = child.getLeft();
@@ -718,6 +780,19 @@ public class FeatureCoverFlow extends EndlessLoopAdapterContainer implements Vie
     }
 
     
+    @Override
+    protected void recycleAllChildren() {
+    	final int c = getChildCount();
+    	final int count = mAdapter.getCount();
+    	View child;
+    	for(int i=0; i < c; i++){
+    		child = getChildAt(i);
+    		child.setSelected(false);
+    		mCachedFrames.put((mFirstItemPosition + i) % count, (CoverFrame) child);
+    	}
+    	removeAllViewsInLayout();
+    }
+    
     @Override
 	protected boolean drawChild(Canvas canvas, View child, long drawingTime) {    	
     	canvas.save();
@@ -725,6 +800,16 @@ public class FeatureCoverFlow extends EndlessLoopAdapterContainer implements Vie
     	//set matrix to child's transformation
     	setChildTransformation(child, mMatrix);
     	
+    	//cover passes by fast and its content was not rasterized yet, doing it together with reflection would cost more than frame.
+    	//Cache of frame from previous cover doesn't count, frame is drawn only when its reflection matches current content
+    	if(mFastKeyNavigation && ((CoverFrame) child).mReflectionCacheInvalid){
+    		canvas.translate(child.getLeft(), child.getTop());
+    		canvas.concat(mMatrix);
+    		canvas.drawRect(0, 0, child.getWidth(), child.getHeight(), mPlaceholderPaint);
+    		canvas.restore();
+    		return false;
+    	}
+    	
     	//Generate child bitmap 
     	Bitmap bitmap = child.getDrawingCache();
     	    	
@@ -1021,6 +1106,8 @@ public class FeatureCoverFlow extends EndlessLoopAdapterContainer implements Vie
 	
 	@Override
 	public boolean dispatchTouchEvent(MotionEvent ev) {
+		notifyAutoScrollerOfTouch(ev);
+		
 		final int action = ev.getAction();
         final float xf = ev.getX();
         final float yf = ev.getY();
@@ -1375,18 +1462,58 @@ public class FeatureCoverFlow extends EndlessLoopAdapterContainer implements Vie
 	public void scrollToPosition(int position) {
 		if(mAdapter == null || mAdapter.getCount() == 0) throw new IllegalStateException("You are trying to scroll container with no adapter set. Set adapter first.");	
 		
-		if(mLastCenterItemIndex != -1){
+		//repeated calls before next frame result in single scroll to last position
+		mScrollToPositionOnNextInvalidate = position;
+		if(mLastCenterItemIndex != -1) scheduleFrameWork(FrameScheduler.WORK_SCROLL | FrameScheduler.WORK_INVALIDATE);
+		else invalidate();
+	}
+	
+	@Override
+	protected void onFrameWork(int work) {
+		super.onFrameWork(work);
+		if(work != FrameScheduler.WORK_SCROLL || mAdapter == null || mAdapter.getCount() == 0) return;
+		
+		if(mScrollToPositionOnNextInvalidate != -1){
+			if(mLastCenterItemIndex == -1) return; //not drawn yet, dispatchDraw schedules scroll again
+			
 			final int lastCenterItemPosition = (mFirstItemPosition + mLastCenterItemIndex) % mAdapter.getCount();
-			final int di = lastCenterItemPosition - position;
-			final int dst = (int) (di * mCoverWidth * mSpacing);
+			final int di = lastCenterItemPosition - mScrollToPositionOnNextInvalidate;
 			mScrollToPositionOnNextInvalidate = -1;
-			scrollBy(-dst, 0);
+			if(di != 0){
+				final int dst = (int) (di * mCoverWidth * mSpacing) - mCenterItemOffset;
+				scrollBy(-dst, 0);
+				shouldRepeat = true;
+				return;
+			}
 		}
-		else{
-			mScrollToPositionOnNextInvalidate = position;
+		
+		if(mTouchState == TOUCH_STATE_RESTING && mCenterItemOffset != 0){
+			scrollBy(mCenterItemOffset, 0);
+		}
+	}
+	
+	/**
+	 * Animates to new center item position. In endless mode moves in direction, in which target is closer.
+	 * @param smooth true to animate, false to jump without animation in next frame
+	 */
+	@Override
+	public void scrollToPosition(int position, boolean smooth) {
+		if(!smooth || mLastCenterItemIndex == -1){
+			scrollToPosition(position);
+			return;
+		}
+		if(mAdapter == null || mAdapter.getCount() == 0) throw new IllegalStateException("You are trying to scroll container with no adapter set. Set adapter first.");
+		
+		final int count = mAdapter.getCount();
+		final int lastCenterItemPosition = (mFirstItemPosition + mLastCenterItemIndex) % count;
+		int di = position - lastCenterItemPosition;
+		if(shouldRepeat){
+			if(di > count/2) di -= count;
+			else if(di < -count/2) di += count;
 		}
 		
-		invalidate();
+		mScroller.forceFinished(true);
+		scroll((int) (di * mCoverWidth * mSpacing) + mCenterItemOffset);
 	}
 	
 	/**
@@ -0,0 +1,119 @@
+package com.martinappl.components.ui.containers;
+
+import android.annotation.SuppressLint;
+import android.view.Choreographer;
+import android.view.View;
+
+/**
+ * @author Martin Appl
+ *
+ * Collects data change, scroll and invalidation work requested by container and runs it once in next display frame (Choreographer on API 16+,
+ * posted runnable on older platforms). Work runs in fixed order: data change, scroll, invalidate. Layout is not scheduled here,
+ * requestLayout() is already merged to one traversal by framework.
+ * Any number of requests between two frames results in single pass.
+ */
+final class FrameScheduler {
+	/** Adapter data changed, container refills its children */
+	static final int WORK_DATA_CHANGED = 1;
+	/** Container scrolls to requested position or aligns content */
+	static final int WORK_SCROLL = 1 << 1;
+	/** invalidate() on container */
+	static final int WORK_INVALIDATE = 1 << 2;
+	
+	/**
+	 * Container side of scheduler, runs work specific for container
+	 */
+	interface Callback {
+		/**
+		 * @param work WORK_DATA_CHANGED or WORK_SCROLL
+		 */
+		void onFrameWork(int work);
+	}
+	
+	private final View mContainer;
+	private final Callback mCallback;
+	
+	private int mPendingWork;
+	private boolean mFramePosted;
+	private FrameCallbackV16 mFrameCallback;
+	
+	private final Runnable mFallbackFrame = new Runnable() {
+		@Override
+		public void run() {
+			doFrame();
+		}
+	};
+	
+	@SuppressLint("NewApi")
+	private class FrameCallbackV16 implements Choreographer.FrameCallback{
+		@Override
+		public void doFrame(long frameTimeNanos) {
+			FrameScheduler.this.doFrame();
+		}
+	}
+	
+	FrameScheduler(View container, Callback callback){
+		mContainer = container;
+		mCallback = callback;
+	}
+	
+	/**
+	 * Adds work to next frame. Must be called on UI thread.
+	 * @param work combination of WORK_ flags
+	 */
+	void schedule(int work){
+		mPendingWork |= work;
+		postFrame();
+	}
+	
+	/**
+	 * Runs pending work immediately, use when container needs consistent state before next frame
+	 */
+	void flush(){
+		if(mPendingWork == 0) return;
+		removeFrame();
+		doFrame();
+	}
+	
+	@SuppressLint("NewApi")
+	private void postFrame(){
+		if(mFramePosted) return;
+		mFramePosted = true;
+		
+		if(android.os.Build.VERSION.SDK_INT >= 16){
+			if(mFrameCallback == null) mFrameCallback = new FrameCallbackV16();
+			Choreographer.getInstance().postFrameCallback(mFrameCallback);
+		}
+		else{
+			mContainer.post(mFallbackFrame);
+		}
+	}
+	
+	@SuppressLint("NewApi")
+	private void removeFrame(){
+		if(!mFramePosted) return;
+		mFramePosted = false;
+		
+		if(android.os.Build.VERSION.SDK_INT >= 16){
+			Choreographer.getInstance().removeFrameCallback(mFrameCallback);
+		}
+		else{
+			mContainer.removeCallbacks(mFallbackFrame);
+		}
+	}
+	
+	private void doFrame(){
+		mFramePosted = false;
+		
+		//work scheduled by stage for later stage runs in this pass, work for earlier stage posts next frame
+		if(takeWork(WORK_DATA_CHANGED)) mCallback.onFrameWork(WORK_DATA_CHANGED);
+		if(takeWork(WORK_SCROLL)) mCallback.onFrameWork(WORK_SCROLL);
+		if(takeWork(WORK_INVALIDATE)) mContainer.invalidate();
+	}
+	
+	private boolean takeWork(int work){
+		if((mPendingWork & work) == 0) return false;
+		mPendingWork &= ~work;
+		return true;
+	}
+}
@@ -0,0 +1,198 @@
+package com.martinappl.components.ui.containers;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.util.AttributeSet;
+import android.view.View;
+
+import com.martinappl.components.general.Validate;
+
+/**
+ * @author Martin Appl
+ *
+ * Horizontally scrolling grid, which stacks several adapter items in every column. Items fill columns from top to bottom,
+ * so item on position p is in column p / rowCount and row p % rowCount.
+ * Grid runs refill and recycling of HorizontalList with column as unit. Cells are direct children of grid and are recycled one by one,
+ * there are no wrapper layouts. Every row gets equal part of grid height, column is as wide as its widest cell.
+ */
+public class HorizontalGrid extends HorizontalList {
+	public static final int DEFAULT_ROW_COUNT = 2;
+
+	private int mRowCount = DEFAULT_ROW_COUNT;
+
+	private final Rect mTempRect = new Rect();
+
+	public HorizontalGrid(Context context, AttributeSet attrs, int defStyle) {
+		super(context, attrs, defStyle);
+	}
+
+	public HorizontalGrid(Context context, AttributeSet attrs) {
+		this(context, attrs, 0);
+	}
+
+	public HorizontalGrid(Context context) {
+		this(context, null);
+	}
+
+	/**
+	 * Sets number of items stacked in every column. Item, which is first on screen, stays on screen.
+	 */
+	public void setRowCount(int rowCount){
+		Validate.isTrue(rowCount > 0, "Row count must be positive: ", rowCount);
+		if(rowCount == mRowCount) return;
+
+		mFirstItemPosition = mFirstItemPosition * mRowCount / rowCount;
+		mRowCount = rowCount;
+		invalidateMeasureCache();
+		if(mAdapter != null) reset();
+	}
+
+	public int getRowCount(){
+		return mRowCount;
+	}
+
+	private int getRowHeight(){
+		return getHeight() / mRowCount;
+	}
+
+	@Override
+	protected int getColumnCount() {
+		return (mAdapter.getCount() + mRowCount - 1) / mRowCount;
+	}
+
+	/**
+	 * Last column can be filled only partially
+	 */
+	@Override
+	protected int getChildCountInColumn(int column) {
+		return Math.max(0, Math.min(mRowCount, mAdapter.getCount() - column * mRowCount));
+	}
+
+	@Override
+	protected int getItemPositionOfChild(int index) {
+		return mFirstItemPosition * mRowCount + index;
+	}
+
+	@Override
+	protected int getFirstColumnRight() {
+		return getCellsRight(0, getChildCountInColumn(mFirstItemPosition));
+	}
+
+	@Override
+	protected int getLastColumnRight() {
+		final int c = getChildCountInColumn(mLastItemPosition);
+		return getCellsRight(getChildCount() - c, c);
+	}
+
+	private int getCellsRight(int index, int count){
+		int right = Integer.MIN_VALUE;
+		View child;
+		for(int i = index; i < index + count; i++){
+			child = getChildAt(i);
+			right = Math.max(right, child.getRight() + ((MarginLayoutParams)child.getLayoutParams()).rightMargin);
+		}
+		return right;
+	}
+
+	/**
+	 * Cells are measured first, column width is known after all of them are measured.
+	 * Then they are laid out in rows with left edges aligned.
+	 */
+	@Override
+	protected int layoutColumn(int column, int edge, int layoutMode) {
+		final int c = getChildCountInColumn(column);
+		final int firstPosition = column * mRowCount;
+
+		int width = 0;
+		int row;
+		View child;
+		MarginLayoutParams lp;
+		for(int i=0; i < c; i++){
+			//cells added before first child are added from bottom, so they end up in row order
+			row = layoutMode == LAYOUT_MODE_TO_BEFORE ? c - 1 - i : i;
+
+			child = obtainView(firstPosition + row);
+			sanitizeLayoutParams(child, firstPosition + row);
+
+			addAndMeasureChild(child, layoutMode);
+			lp = (MarginLayoutParams) child.getLayoutParams();
+			width = Math.max(width, lp.leftMargin + child.getMeasuredWidth() + lp.rightMargin);
+		}
+
+		final int left = layoutMode == LAYOUT_MODE_TO_BEFORE ? edge - width : edge;
+		final int index = layoutMode == LAYOUT_MODE_TO_BEFORE ? 0 : getChildCount() - c;
+		final int rowHeight = getRowHeight();
+		int l,t;
+		for(int i=0; i < c; i++){
+			child = getChildAt(index + i);
+			lp = (MarginLayoutParams) child.getLayoutParams();
+			l = left + lp.leftMargin;
+			t = i * rowHeight + lp.topMargin;
+			child.layout(l, t, l + child.getMeasuredWidth(), t + child.getMeasuredHeight());
+		}
+
+		return width;
+	}
+
+	/**
+	 * MATCH_PARENT height of cell means height of row
+	 */
+	@Override
+	protected void sanitizeLayoutParams(View child) {
+		if(child.getLayoutParams() == null) child.setLayoutParams(generateDefaultLayoutParams());
+
+		final LayoutParams lp = child.getLayoutParams();
+		if(lp.height == LayoutParams.MATCH_PARENT){
+			lp.height = getRowHeight();
+			if(lp instanceof MarginLayoutParams) lp.height -= ((MarginLayoutParams)lp).topMargin + ((MarginLayoutParams)lp).bottomMargin;
+			lp.height = Math.max(lp.height, 0);
+		}
+
+		super.sanitizeLayoutParams(child);
+	}
+
+	/**
+	 * Column is found by binary search over left edges of columns, row from y coordinate
+	 */
+	@Override
+	protected int getChildIndexAt(int x, int y) {
+		final int columns = mLastItemPosition - mFirstItemPosition + 1;
+		final int rowHeight = getRowHeight();
+		if(getChildCount() == 0 || columns <= 0 || rowHeight <= 0 || y < 0) return -1;
+
+		int low = 0;
+		int high = columns - 1;
+		View first;
+		while(low < high){
+			final int mid = (low + high + 1) >>> 1;
+			first = getChildAt(mid * mRowCount);
+			if(first.getLeft() - ((MarginLayoutParams)first.getLayoutParams()).leftMargin <= x) low = mid;
+			else high = mid - 1;
+		}
+
+		final int row = y / rowHeight;
+		if(row >= getChildCountInColumn(mFirstItemPosition + low)) return -1;
+
+		final int index = low * mRowCount + row;
+		getChildAt(index).getHitRect(mTempRect);
+		return mTempRect.contains(x, y) ? index : -1;
+	}
+
+	/**
+	 * Scrolls grid, so column with item on position is at left edge of grid, or as close as end of grid allows.
+	 */
+	@Override
+	public void scrollToPosition(int position, boolean smooth) {
+		if(mAdapter != null && (position < 0 || position >= mAdapter.getCount())) throw new IndexOutOfBoundsException("Position must be in bounds of adapter values count");
+		super.scrollToPosition(position / mRowCount, smooth);
+	}
+
+	/**
+	 * @return Adapter position of first item in column, which is at left edge when grid is scrolled to fraction of its width
+	 */
+	@Override
+	public int getPositionForScrollFraction(float fraction) {
+		return super.getPositionForScrollFraction(fraction) * mRowCount;
+	}
+
+}
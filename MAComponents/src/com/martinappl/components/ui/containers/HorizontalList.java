@@ -1,6 +1,8 @@
 package com.martinappl.components.ui.containers;
 
 
+import java.util.concurrent.Executor;
+
 import android.content.Context;
 import android.database.DataSetObserver;
 import android.graphics.Point;
@@ -14,7 +16,10 @@ import android.view.ViewGroup;
 import android.widget.Adapter;
 import android.widget.Scroller;
 
+import com.martinappl.components.general.ExtentIndex;
+import com.martinappl.components.general.MeasureCache;
 import com.martinappl.components.general.ToolBox;
+import com.martinappl.components.ui.containers.interfaces.IAsyncAdapter;
 import com.martinappl.components.ui.containers.interfaces.IViewObserver;
 
 public class HorizontalList extends ViewGroup {
@@ -29,6 +34,13 @@ public class HorizontalList extends ViewGroup {
     /** Fling gesture in progress */
     protected static final int TOUCH_STATE_FLING = 2;
     
+    /** Animated scroll to distance or position in progress */
+    protected static final int TOUCH_STATE_DISTANCE_SCROLL = 3;
+    
+    protected static final int SCROLLING_DURATION = 500;
+    
+    protected static final int PAGE_SNAP_DURATION = 300;
+    
     /** Children added with this layout mode will be added after the last child */
     protected static final int LAYOUT_MODE_AFTER = 0;
 
@@ -49,14 +61,69 @@ public class HorizontalList extends ViewGroup {
 	private int mTouchState = TOUCH_STATE_RESTING;
 	private float mLastMotionX;
     private final Point mDown = new Point();
+    /** Scratch rectangle for hit testing of children */
+    private final Rect mHitRect = new Rect();
     private VelocityTracker mVelocityTracker;
     private boolean mHandleSelectionOnActionUp = false;		
     
     protected int mRightEdge = NO_VALUE;
     private int mDefaultItemWidth = 200;
     
+    /** Prefix sums of item widths including margins. Left edge of item is at offset of its position in this index */
+    protected final ExtentIndex mExtentIndex = new ExtentIndex(mDefaultItemWidth);
+    /** Position which is target of running animated scroll */
+    private int mScrollTargetPosition = NO_VALUE;
+    
+    /** List rests only on page boundaries */
+    private boolean isPagingEnabled = false;
+    /** Width of page, 0 for width of list */
+    private int mPageWidth = 0;
+    /** Page which is target of running snap animation */
+    private int mScrollTargetPage = NO_VALUE;
+    /** Area around page at rest, which is kept laid out, so neighbouring pages are bound before swipe starts */
+    private int mPrerenderLeft = NO_VALUE;
+    private int mPrerenderRight = NO_VALUE;
+    private boolean isPrerenderPosted = false;
+    
+    private final Runnable mPrerenderPages = new Runnable() {
+		@Override
+		public void run() {
+			isPrerenderPosted = false;
+			if(!isPagingEnabled || mAdapter == null || mTouchState != TOUCH_STATE_RESTING || !mScroller.isFinished()) return;
+			
+			mPrerenderLeft = Math.max(getScrollX() - getPageWidth(), 0);
+			mPrerenderRight = getScrollX() + getWidth() + getPageWidth();
+			refill();
+		}
+	};
+    
     protected IViewObserver mViewObserver;
     
+    /** Set by subclass while it changes adapter data, which it already applied to children. List then doesn't reset on data change */
+    protected boolean isDataChangeAppliedToChildren = false;
+    
+    /** Width of every item including margins in fixed width mode, declared by setFixedItemWidth() or detected. 0 if items differ */
+    private int mFixedItemWidth = 0;
+    private boolean isFixedItemWidthDeclared = false;
+    private boolean isFixedItemWidthDetectionEnabled = false;
+    /** Width shared by all items measured so far */
+    private int mDetectedItemWidth = NO_VALUE;
+    /** Number of items measured with detected width, -1 when items with different widths were found */
+    private int mDetectedItemCount = 0;
+    private static final int FIXED_WIDTH_DETECTION_COUNT = 8;
+    
+    /** Sizes of items resolved from WRAP_CONTENT, by item id (position if ids are not stable) and view type */
+    private final MeasureCache mMeasureCache = new MeasureCache();
+    private boolean isMeasureCacheEnabled = true;
+    
+    /** Pool of views shared with other containers, replaces mCache when set */
+    private RecycledViewPool mRecycledViewPool;
+    
+    /** Binds views on worker thread, if adapter implements IAsyncAdapter */
+    private AsyncViewBinder mAsyncBinder;
+    private Executor mAsyncExecutor;
+    private int mAsyncCommitBudget = AsyncViewBinder.DEFAULT_COMMIT_BUDGET_MILLIS;
+    
 	//listeners
     private OnItemClickListener mItemClickListener;
     
@@ -64,23 +131,63 @@ public class HorizontalList extends ViewGroup {
 
 		@Override
 		public void onChanged() {			
-			reset();
-			invalidate();
+			if(mAdapter == null || !mAdapter.hasStableIds()){
+				mMeasureCache.clear();
+				mExtentIndex.clear();
+			}
+			//pending async bindings are for old positions, so they need reset
+			if(isDataChangeAppliedToChildren && mAsyncBinder == null) onDataChangeApplied();
+			else mFrameScheduler.schedule(FrameScheduler.WORK_DATA_CHANGED | FrameScheduler.WORK_INVALIDATE);
 		}
 
 		@Override
 		public void onInvalidated() {
+			if(mAsyncBinder != null) mAsyncBinder.cancelAll();
 			removeAllViews();
 			invalidate();
 		}
 		
 	};
 	
+	/** Several data changes before next frame result in single reset */
+	private final FrameScheduler mFrameScheduler = new FrameScheduler(this, new FrameScheduler.Callback() {
+		@Override
+		public void onFrameWork(int work) {
+			if(work == FrameScheduler.WORK_DATA_CHANGED && mAdapter != null) reset();
+		}
+	});
+	
+	private final AsyncViewBinder.Callback mAsyncCallback = new AsyncViewBinder.Callback() {
+		
+		@Override
+		public boolean onAsyncViewReady(View placeholder, View view, int position) {
+			final int index = indexOfChild(placeholder);
+			if(index < 0) return false;
+			
+			//real view takes slot of placeholder, so other children don't move
+			final MarginLayoutParams lp = new MarginLayoutParams((MarginLayoutParams) placeholder.getLayoutParams());
+			view.setLayoutParams(lp);
+			removeViewInLayout(placeholder);
+			addViewInLayout(view, index, lp, true);
+			view.measure(MeasureSpec.makeMeasureSpec(placeholder.getWidth(), MeasureSpec.EXACTLY), 
+					MeasureSpec.makeMeasureSpec(placeholder.getHeight(), MeasureSpec.EXACTLY));
+			view.layout(placeholder.getLeft(), placeholder.getTop(), placeholder.getRight(), placeholder.getBottom());
+			view.setDrawingCacheEnabled(false);
+			invalidate();
+			return true;
+		}
+		
+		@Override
+		public void onAsyncViewDiscarded(View view, int position) {
+			recycleView(view, position);
+		}
+	};
+	
 	/**
 	 * Remove all data, reset to initial state and attempt to refill
 	 * Position of first item on screen in Adapter data set is maintained
 	 */
-	private void reset() {
+	protected void reset() {
 		int scroll = getScrollX();
 		
 		int left = 0;
@@ -88,9 +195,12 @@ public class HorizontalList extends ViewGroup {
 			left = getChildAt(0).getLeft() - ((MarginLayoutParams)getChildAt(0).getLayoutParams()).leftMargin;
 		}
 				
+		if(mAsyncBinder != null) mAsyncBinder.cancelAll();
 		removeAllViewsInLayout();		
 		mLastItemPosition = mFirstItemPosition;
 		mRightEdge = NO_VALUE;
+		mExtentIndex.setCount(mAdapter != null ? getColumnCount() : 0);
+		updateFixedRightEdge();
 		scrollTo(left, 0);
 		
 		final int leftScreenEdge = getScrollX();
@@ -100,6 +210,20 @@ public class HorizontalList extends ViewGroup {
 		refillRightToLeft(leftScreenEdge);
 		
 		scrollTo(scroll, 0);
+		alignChildrenWithExtentIndex();
+	}
+
+	/**
+	 * Children already match new data, only extent index and right edge are updated
+	 */
+	private void onDataChangeApplied(){
+		mExtentIndex.setCount(getColumnCount());
+		mRightEdge = NO_VALUE;
+		updateFixedRightEdge();
+		if(getChildCount() != 0 && mLastItemPosition >= getColumnCount() - 1) mRightEdge = getLastColumnRight();
+		
+		requestLayout();
+		invalidate();
 	}
 
 	public HorizontalList(Context context) {
@@ -135,23 +259,17 @@ public class HorizontalList extends ViewGroup {
 	protected void refillRightToLeft(final int leftScreenEdge){
 		if(getChildCount() == 0) return;
 		
-		View child = getChildAt(0);
-		int childLeft = child.getLeft();
-		int lastLeft = childLeft - ((MarginLayoutParams)child.getLayoutParams()).leftMargin;
+		final View child = getChildAt(0);
+		int lastLeft = child.getLeft() - ((MarginLayoutParams)child.getLayoutParams()).leftMargin;
 		
+		int width;
 		while(lastLeft > leftScreenEdge && mFirstItemPosition > 0){				
 			mFirstItemPosition--;			
 			
-			child = mAdapter.getView(mFirstItemPosition, mCache.getCachedView(), this);
-			sanitizeLayoutParams(child);
-			
-			addAndMeasureChild(child, LAYOUT_MODE_TO_BEFORE);
-			final MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
-			lastLeft = layoutChildToBefore(child, lastLeft, lp);
-			childLeft = child.getLeft() - ((MarginLayoutParams)child.getLayoutParams()).leftMargin;
-			
+			width = layoutColumn(mFirstItemPosition, lastLeft, LAYOUT_MODE_TO_BEFORE);
+			lastLeft -= width;
+			recordItemWidth(mFirstItemPosition, width);
 		}
-		return;
 	}
 	
 	/**
@@ -159,33 +277,228 @@ public class HorizontalList extends ViewGroup {
 	 */
 	protected void refillLeftToRight(final int leftScreenEdge, final int rightScreenEdge){		
 		
-		View child;
 		int lastRight;
 		if(getChildCount() != 0){
-			child = getChildAt(getChildCount() - 1);
-			lastRight = child.getRight() + ((MarginLayoutParams)child.getLayoutParams()).rightMargin;
+			lastRight = getLastColumnRight();
 		}
 		else{
 			lastRight = leftScreenEdge;
 			if(mLastItemPosition == mFirstItemPosition) mLastItemPosition--;
 		}
 		
-		while(lastRight < rightScreenEdge && mLastItemPosition < mAdapter.getCount()-1){
+		int width;
+		while(lastRight < rightScreenEdge && mLastItemPosition < getColumnCount()-1){
 			mLastItemPosition++;
 			
-			child = mAdapter.getView(mLastItemPosition, mCache.getCachedView(), this);
-			sanitizeLayoutParams(child);
-			
-			addAndMeasureChild(child, LAYOUT_MODE_AFTER); 
-			final MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
-			lastRight = layoutChild(child, lastRight, lp);
+			width = layoutColumn(mLastItemPosition, lastRight, LAYOUT_MODE_AFTER);
+			lastRight += width;
+			recordItemWidth(mLastItemPosition, width);
 			
-			if(mLastItemPosition >= mAdapter.getCount()-1) {
+			if(mLastItemPosition >= getColumnCount()-1) {
 				mRightEdge = lastRight;
 			}			
 		}
 	}
 	
+	/**
+	 * Obtains views of column, adds them and lays them out. mFirstItemPosition, mLastItemPosition and extent index 
+	 * count columns, in HorizontalList every item is column of its own.
+	 * @param edge left edge of column in LAYOUT_MODE_AFTER, right edge in LAYOUT_MODE_TO_BEFORE
+	 * @return width of column including margins
+	 */
+	protected int layoutColumn(int column, int edge, int layoutMode){
+		final View child = obtainView(column);
+		sanitizeLayoutParams(child, column);
+		
+		addAndMeasureChild(child, layoutMode);
+		final MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+		if(layoutMode == LAYOUT_MODE_TO_BEFORE) return edge - layoutChildToBefore(child, edge, lp);
+		else return layoutChild(child, edge, lp) - edge;
+	}
+	
+	/**
+	 * @return number of columns, which refill lays out
+	 */
+	protected int getColumnCount(){
+		return mAdapter.getCount();
+	}
+	
+	/**
+	 * @return number of children, which column consists of
+	 */
+	protected int getChildCountInColumn(int column){
+		return 1;
+	}
+	
+	/**
+	 * @return adapter position of item shown by child on index
+	 */
+	protected int getItemPositionOfChild(int index){
+		return mFirstItemPosition + index;
+	}
+	
+	/**
+	 * @return right edge of first laid out column including margin
+	 */
+	protected int getFirstColumnRight(){
+		final View child = getChildAt(0);
+		return child.getRight() + ((MarginLayoutParams)child.getLayoutParams()).rightMargin;
+	}
+	
+	/**
+	 * @return right edge of last laid out column including margin
+	 */
+	protected int getLastColumnRight(){
+		final View child = getChildAt(getChildCount() - 1);
+		return child.getRight() + ((MarginLayoutParams)child.getLayoutParams()).rightMargin;
+	}
+	
+	/**
+	 * Removes views of column, which starts at child index, and recycles them
+	 */
+	private void removeColumn(int column, int index){
+		View v;
+		for(int i = getChildCountInColumn(column) - 1; i >= 0; i--){
+			v = getChildAt(index + i);
+			removeViewInLayout(v);
+			
+			if(mViewObserver != null) mViewObserver.onViewRemovedFromParent(v, getItemPositionOfChild(index + i));
+			recycleView(v, getItemPositionOfChild(index + i));
+		}
+	}
+	
+	
+	/**
+	 * Returns view for item. When adapter binds asynchronously, placeholder is returned and real view replaces it later.
+	 */
+	protected View obtainView(int position){
+		if(mAsyncBinder != null) return mAsyncBinder.obtainView(position, getCachedView(position));
+		else return mAdapter.getView(position, getCachedView(position), this);
+	}
+	
+	private View getCachedView(int position){
+		if(mRecycledViewPool != null) return mRecycledViewPool.get(mAdapter.getItemViewType(position));
+		else return mCache.getCachedView();
+	}
+	
+	/**
+	 * Puts view, which was removed from container to cache. Pending binding is cancelled, if view is placeholder.
+	 */
+	protected void recycleView(View v, int position){
+		if(mAsyncBinder != null && mAsyncBinder.recycle(v)) return;
+		
+		if(mRecycledViewPool == null) mCache.cacheView(v);
+		else if(position >= 0 && position < mAdapter.getCount()) mRecycledViewPool.put(mAdapter.getItemViewType(position), v);
+	}
+	
+	/**
+	 * Puts view of item, which is not in adapter anymore, to cache. Its view type can't be read from adapter, so it must be kept by caller.
+	 */
+	protected void recycleViewOfType(View v, int viewType){
+		if(mAsyncBinder != null && mAsyncBinder.recycle(v)) return;
+		
+		if(mRecycledViewPool == null) mCache.cacheView(v);
+		else mRecycledViewPool.put(viewType, v);
+	}
+	
+	/**
+	 * Shares views for reuse with other containers attached to same pool. Pass null to use private cache of list.
+	 */
+	public void setRecycledViewPool(RecycledViewPool pool){
+		mRecycledViewPool = pool;
+	}
+	
+	public RecycledViewPool getRecycledViewPool(){
+		return mRecycledViewPool;
+	}
+	
+	/**
+	 * Stores width of item to extent index. In fixed width mode index is not needed, only width is checked, 
+	 * if it was detected. When detection is enabled, fixed width mode is entered after enough items have same width.
+	 */
+	private void recordItemWidth(int position, int width){
+		if(mFixedItemWidth > 0){
+			if(isFixedItemWidthDeclared || width == mFixedItemWidth) return;
+			
+			//detected width doesn't hold anymore
+			mDetectedItemCount = -1;
+			setFixedWidthMode(0);
+		}
+		mExtentIndex.setExtent(position, width);
+		
+		if(!isFixedItemWidthDetectionEnabled || mDetectedItemCount < 0) return;
+		if(mDetectedItemCount == 0){
+			mDetectedItemWidth = width;
+			mDetectedItemCount = 1;
+		}
+		else if(width != mDetectedItemWidth){
+			mDetectedItemCount = -1;
+		}
+		else if(++mDetectedItemCount >= FIXED_WIDTH_DETECTION_COUNT && mAdapter.getViewTypeCount() == 1){
+			setFixedWidthMode(width);
+		}
+	}
+	
+	/**
+	 * Switches between fixed width mode, where positions and content width are computed arithmetically, and measured mode.
+	 * @param width width of items or 0 for measured mode
+	 */
+	private void setFixedWidthMode(int width){
+		final int oldWidth = mFixedItemWidth;
+		mFixedItemWidth = width;
+		if(width > 0){
+			mExtentIndex.clear();
+			mExtentIndex.setEstimatedExtent(width);
+			updateFixedRightEdge();
+			return;
+		}
+		
+		//back to measured widths, laid out columns were checked to have fixed width
+		mExtentIndex.setEstimatedExtent(0);
+		if(oldWidth > 0 && getChildCount() != 0){
+			for(int column = mFirstItemPosition; column <= mLastItemPosition; column++){
+				mExtentIndex.setExtent(column, oldWidth);
+			}
+		}
+		if(mAdapter == null || mLastItemPosition < getColumnCount() - 1) mRightEdge = NO_VALUE;
+	}
+	
+	/**
+	 * In fixed width mode right edge of content is known without laying out last item
+	 */
+	private void updateFixedRightEdge(){
+		if(mFixedItemWidth > 0 && mAdapter != null) mRightEdge = getColumnCount() * mFixedItemWidth;
+	}
+	
+	/**
+	 * Declares that all items have same width, so list doesn't have to measure items to know their positions and width of content.
+	 * Width of items is forced to this value.
+	 * @param width width of item including margins, or 0 to measure items
+	 */
+	public void setFixedItemWidth(int width){
+		isFixedItemWidthDeclared = width > 0;
+		mDetectedItemCount = 0;
+		mMeasureCache.clear();
+		setFixedWidthMode(Math.max(width, 0));
+		if(mAdapter != null) reset();
+	}
+	
+	/**
+	 * When enabled, list switches to fixed width mode after it finds out first items have same width and adapter has single view type.
+	 * If item with different width is found later, list returns to measuring.
+	 */
+	public void setFixedItemWidthDetectionEnabled(boolean enabled){
+		isFixedItemWidthDetectionEnabled = enabled;
+		mDetectedItemCount = 0;
+		if(!enabled && !isFixedItemWidthDeclared && mFixedItemWidth > 0) setFixedWidthMode(0);
+	}
+	
+	/**
+	 * @return width of items in fixed width mode, or 0 if list measures items
+	 */
+	public int getFixedItemWidth(){
+		return mFixedItemWidth;
+	}
 	
 	/**
 	 * Remove non visible views from left edge of screen
@@ -193,27 +506,18 @@ public class HorizontalList extends ViewGroup {
 	protected void removeNonVisibleViewsLeftToRight(final int leftScreenEdge){
 		if(getChildCount() == 0) return;
     	    		    	
-    	// check if we should remove any views in the left
-        View firstChild = getChildAt(0);
-
-        while (firstChild != null && firstChild.getRight() + ((MarginLayoutParams)firstChild.getLayoutParams()).rightMargin < leftScreenEdge) {
+    	// check if we should remove any columns in the left
+        while (getFirstColumnRight() < leftScreenEdge) {
         	
-            // remove view
-        	removeViewsInLayout(0, 1);
-            
-        	if(mViewObserver != null) mViewObserver.onViewRemovedFromParent(firstChild, mFirstItemPosition);
-            mCache.cacheView(firstChild);
+            // remove views of column
+        	removeColumn(mFirstItemPosition, 0);
             
             mFirstItemPosition++;
-            if(mFirstItemPosition >= mAdapter.getCount()) mFirstItemPosition = 0;
+            if(mFirstItemPosition >= getColumnCount()) mFirstItemPosition = 0;
 
-            // Continue to check the next child only if we have more than
-            // one child left
-            if (getChildCount() > 1) {
-                firstChild = getChildAt(0);
-            } else {
-                firstChild = null;
-            }
+            // Continue to check the next column only if we have more than
+            // one column left
+            if (getChildCount() <= getChildCountInColumn(mFirstItemPosition)) break;
         }
         
 	}
@@ -227,18 +531,15 @@ public class HorizontalList extends ViewGroup {
 		// check if we should remove any views in the right
         View lastChild = getChildAt(getChildCount() - 1);
         while (lastChild != null && lastChild.getLeft()  - ((MarginLayoutParams)lastChild.getLayoutParams()).leftMargin > rightScreenEdge) {	        	
-            // remove the right view
-        	removeViewsInLayout(getChildCount() - 1, 1);            
-        	
-        	if(mViewObserver != null) mViewObserver.onViewRemovedFromParent(lastChild, mLastItemPosition);
-            mCache.cacheView(lastChild);
+            // remove views of the right column
+        	removeColumn(mLastItemPosition, getChildCount() - getChildCountInColumn(mLastItemPosition));
             
             mLastItemPosition--;
-            if(mLastItemPosition < 0) mLastItemPosition = mAdapter.getCount()-1;
+            if(mLastItemPosition < 0) mLastItemPosition = getColumnCount()-1;
 
-            // Continue to check the next child only if we have more than
-            // one child left
-            if (getChildCount() > 1) {
+            // Continue to check the next column only if we have more than
+            // one column left
+            if (getChildCount() > getChildCountInColumn(mLastItemPosition)) {
                 lastChild = getChildAt(getChildCount() - 1);
             } else {
                 lastChild = null;
@@ -250,18 +551,140 @@ public class HorizontalList extends ViewGroup {
 	protected void refill(){
 		if(mAdapter == null) return;
 		
-		final int leftScreenEdge = getScrollX();
-		int rightScreenEdge = leftScreenEdge + getWidth();
+		int leftScreenEdge = getScrollX();
+		int rightScreenEdge = leftScreenEdge + getWidth() + getRightLayoutExtension();
+		if(mPrerenderLeft != NO_VALUE && (leftScreenEdge < mPrerenderLeft || rightScreenEdge > mPrerenderRight)){
+			//list was moved out of prerendered pages, they are not kept anymore
+			mPrerenderLeft = NO_VALUE;
+			mPrerenderRight = NO_VALUE;
+		}
+		if(mPrerenderLeft != NO_VALUE){
+			leftScreenEdge = Math.min(leftScreenEdge, mPrerenderLeft);
+			rightScreenEdge = Math.max(rightScreenEdge, mPrerenderRight);
+		}
 		
 		removeNonVisibleViewsLeftToRight(leftScreenEdge);
 		removeNonVisibleViewsRightToLeft(rightScreenEdge);
 		
 		refillLeftToRight(leftScreenEdge, rightScreenEdge);
-		refillRightToLeft(leftScreenEdge);					
+		refillRightToLeft(leftScreenEdge);
+		alignChildrenWithExtentIndex();
+	}
+	
+	/**
+	 * @return width laid out beyond right edge of screen. Subclasses extend it, when children slide in from the right by animation.
+	 */
+	protected int getRightLayoutExtension(){
+		return 0;
+	}
+	
+	/**
+	 * Items which were not measured yet are counted with estimated width in extent index. When such items get measured left of first child, 
+	 * children positions stop matching offsets in index. Shifts children together with scroll position, so nothing moves on screen.
+	 */
+	private void alignChildrenWithExtentIndex(){
+		if(getChildCount() == 0 || mFirstItemPosition >= mExtentIndex.getCount()) return;
+		
+		final View first = getChildAt(0);
+		final int left = first.getLeft() - ((MarginLayoutParams)first.getLayoutParams()).leftMargin;
+		final int dx = mExtentIndex.getOffset(mFirstItemPosition) - left;
+		if(dx != 0){
+			final int c = getChildCount();
+			for(int i=0; i < c; i++){
+				getChildAt(i).offsetLeftAndRight(dx);
+			}
+			if(mRightEdge != NO_VALUE) mRightEdge += dx;
+			scrollTo(getScrollX() + dx, 0);
+		}
+		
+		if(mScroller.isFinished()) return;
+		int finalX = mScroller.getFinalX() + dx;
+		if(mScrollTargetPosition != NO_VALUE) finalX = getScrollTargetForPosition(mScrollTargetPosition);
+		else if(mScrollTargetPage != NO_VALUE) finalX = getPageScrollX(mScrollTargetPage);
+		if(dx != 0 || finalX != mScroller.getFinalX()) continueScroll(mScroller.getCurrX() + dx, finalX);
+	}
+	
+	/**
+	 * Restarts running scroll animation from new start to new end, in remaining time
+	 */
+	private void continueScroll(int fromX, int toX){
+		final int remaining = Math.max(mScroller.getDuration() - mScroller.timePassed(), 0);
+		mScroller.forceFinished(true);
+		mScroller.startScroll(fromX, 0, toX - fromX, 0, remaining);
 	}
 	
 	
 	
+	/**
+	 * Sanitizes layout params, size of item is taken from measure cache if item was measured before
+	 */
+	protected void sanitizeLayoutParams(View child, int position){
+		if(isFixedItemWidthDeclared){
+			final MarginLayoutParams lp = toMarginLayoutParams(child);
+			lp.width = Math.max(mFixedItemWidth - lp.leftMargin - lp.rightMargin, 0);
+			child.setLayoutParams(lp);
+		}
+		
+		if(!isMeasureCacheEnabled){
+			sanitizeLayoutParams(child);
+			return;
+		}
+		
+		final long id = getMeasureCacheId(position);
+		final int type = mAdapter.getItemViewType(position);
+		if(mMeasureCache.get(id, type)){
+			final MarginLayoutParams lp = toMarginLayoutParams(child);
+			lp.width = mMeasureCache.getWidth();
+			lp.height = mMeasureCache.getHeight();
+			child.setLayoutParams(lp);
+		}
+		else{
+			sanitizeLayoutParams(child);
+			final LayoutParams lp = child.getLayoutParams();
+			mMeasureCache.put(id, type, lp.width, lp.height);
+		}
+	}
+	
+	private MarginLayoutParams toMarginLayoutParams(View child){
+		if(child.getLayoutParams() instanceof MarginLayoutParams) return (MarginLayoutParams) child.getLayoutParams();
+		else if(child.getLayoutParams() != null) return new MarginLayoutParams(child.getLayoutParams());
+		else return new MarginLayoutParams(mDefaultItemWidth,getHeight());
+	}
+	
+	private long getMeasureCacheId(int position){
+		return mAdapter.hasStableIds() ? mAdapter.getItemId(position) : position;
+	}
+	
+	/**
+	 * Measure cache keeps sizes of items, so WRAP_CONTENT items are measured only first time they are shown.
+	 * Enabled by default, disable it if size of items changes without notifying data change.
+	 */
+	public void setMeasureCacheEnabled(boolean enabled){
+		isMeasureCacheEnabled = enabled;
+		if(!enabled) mMeasureCache.clear();
+	}
+	
+	/**
+	 * Forgets cached size of item, use when size of single item changed
+	 */
+	public void invalidateItemMeasure(int position){
+		if(mAdapter == null || position < 0 || position >= mAdapter.getCount()) return;
+		mMeasureCache.invalidate(getMeasureCacheId(position), mAdapter.getItemViewType(position));
+	}
+	
+	/**
+	 * Forgets all cached sizes of items
+	 */
+	public void invalidateMeasureCache(){
+		mMeasureCache.clear();
+	}
+	
+	@Override
+	protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+		super.onSizeChanged(w, h, oldw, oldh);
+		mMeasureCache.clear(); //MATCH_PARENT items are resolved to container size
+	}
+	
 	protected void sanitizeLayoutParams(View child){
 		MarginLayoutParams lp;
 		if(child.getLayoutParams() instanceof MarginLayoutParams) lp = (MarginLayoutParams) child.getLayoutParams();
@@ -495,6 +918,9 @@ public class HorizontalList extends ViewGroup {
 	            if (Math.abs(initialXVelocity) + Math.abs(initialYVelocity) > mMinimumVelocity) {
 	            	fling(-initialXVelocity, -initialYVelocity);
 	            }
+	            else if(isPagingEnabled){
+	            	snapToPage(getCurrentPage());
+	            }
 	            else{
 	            	// Release the drag
 	                clearChildrenCache();
@@ -521,7 +947,8 @@ public class HorizontalList extends ViewGroup {
         	
             break;
         case MotionEvent.ACTION_CANCEL:        	
-        	mTouchState = TOUCH_STATE_RESTING;
+        	if(isPagingEnabled && mTouchState == TOUCH_STATE_SCROLLING) snapToPage(getCurrentPage());
+        	else mTouchState = TOUCH_STATE_RESTING;
         }
 
         return true;
@@ -541,6 +968,7 @@ public class HorizontalList extends ViewGroup {
 		
 		if (mScroller.computeScrollOffset()) {
 			if(mScroller.getFinalX() == mScroller.getCurrX()){
+				if(mTouchState == TOUCH_STATE_DISTANCE_SCROLL) scrollTo(mScroller.getCurrX(), 0);
 				mScroller.abortAnimation();
 				mTouchState = TOUCH_STATE_RESTING;
 				clearChildrenCache();
@@ -552,17 +980,41 @@ public class HorizontalList extends ViewGroup {
 	            postInvalidate();
 			}
         }
-		else if(mTouchState == TOUCH_STATE_FLING){
+		else if(mTouchState == TOUCH_STATE_FLING || mTouchState == TOUCH_STATE_DISTANCE_SCROLL){
 			mTouchState = TOUCH_STATE_RESTING;
 			clearChildrenCache();
 		}
+		if(mScroller.isFinished()){
+			mScrollTargetPosition = NO_VALUE;
+			mScrollTargetPage = NO_VALUE;
+		}
 		
 		refill();
+		if(isPagingEnabled && mTouchState == TOUCH_STATE_RESTING && mScroller.isFinished()) postPrerender();
+	}
+	
+	/**
+	 * Page rests, layout of neighbouring pages is posted, so it doesn't delay frame which finished scroll
+	 */
+	private void postPrerender(){
+		if(isPrerenderPosted) return;
+		if(mPrerenderLeft == Math.max(getScrollX() - getPageWidth(), 0) && mPrerenderRight == getScrollX() + getWidth() + getPageWidth()) return;
+		
+		isPrerenderPosted = true;
+		post(mPrerenderPages);
 	}
 	
 	public void fling(int velocityX, int velocityY){
 		if(isScrollingDisabled) return;
 		
+		if(isPagingEnabled){
+			final int pageWidth = getPageWidth();
+			if(velocityX > 0) snapToPage(getScrollX() / pageWidth + 1);
+			else if(velocityX < 0) snapToPage((getScrollX() + pageWidth - 1) / pageWidth - 1);
+			else snapToPage(getCurrentPage());
+			return;
+		}
+		
 		mTouchState = TOUCH_STATE_FLING;
 		final int x = getScrollX();
 		final int y = getScrollY();
@@ -576,6 +1028,216 @@ public class HorizontalList extends ViewGroup {
 		invalidate();
 	}
 	
+	/**
+	 * Scrolls list, so item on position is at left edge of list, or as close as end of list allows.
+	 * Position of items, which were not measured yet is estimated and corrected during animation as they get measured.
+	 * @param smooth true to animate scroll, false to jump immediately
+	 */
+	public void scrollToPosition(int position, boolean smooth){
+		if(mAdapter == null) throw new IllegalStateException("You are trying to scroll container with no adapter set. Set adapter first.");
+		if(position < 0 || position >= mAdapter.getCount()) throw new IndexOutOfBoundsException("Position must be in bounds of adapter values count");
+		if(isScrollingDisabled) return;
+		
+		mFrameScheduler.flush(); //pending data change would reset list after scroll
+		mScroller.forceFinished(true);
+		mScrollTargetPage = NO_VALUE;
+		final int target = getScrollTargetForPosition(position);
+		
+		if(smooth){
+			mScrollTargetPosition = position;
+			mTouchState = TOUCH_STATE_DISTANCE_SCROLL;
+			mScroller.startScroll(getScrollX(), 0, target - getScrollX(), 0, SCROLLING_DURATION);
+			invalidate();
+		}
+		else{
+			mScrollTargetPosition = NO_VALUE;
+			mTouchState = TOUCH_STATE_RESTING;
+			jumpTo(position, target);
+		}
+	}
+	
+	/**
+	 * Immediately moves list to position in percentage of list width. Use to implement fast scroll thumb.
+	 * @param fraction 0 - 1
+	 */
+	public void scrollToFraction(float fraction){
+		if(mAdapter == null || mAdapter.getCount() == 0 || isScrollingDisabled) return;
+		
+		mFrameScheduler.flush();
+		mScroller.forceFinished(true);
+		mScrollTargetPosition = NO_VALUE;
+		mScrollTargetPage = NO_VALUE;
+		mTouchState = TOUCH_STATE_RESTING;
+		
+		final int x = (int) (getMaxScrollX() * Math.max(0f, Math.min(1f, fraction)));
+		jumpTo(mExtentIndex.getPositionAt(x), x);
+	}
+	
+	/**
+	 * @return current scroll position as fraction of scrollable width, 0 - 1
+	 */
+	public float getScrollFraction(){
+		final int max = getMaxScrollX();
+		if(max <= 0) return 0;
+		return Math.max(0f, Math.min(1f, getScrollX() / (float) max));
+	}
+	
+	/**
+	 * @return Adapter position of item, which is at left edge when list is scrolled to fraction of its width
+	 */
+	public int getPositionForScrollFraction(float fraction){
+		final int x = (int) (getMaxScrollX() * Math.max(0f, Math.min(1f, fraction)));
+		return mExtentIndex.getPositionAt(x);
+	}
+	
+	/**
+	 * @return Width of all items in list, widths of items which were not shown yet are estimated
+	 */
+	public int getContentWidth(){
+		if(mRightEdge != NO_VALUE) return mRightEdge;
+		return mExtentIndex.getTotalExtent();
+	}
+	
+	/**
+	 * Set width used for items which were not shown yet when computing content width and positions.
+	 * @param width estimated width including margins or 0 to use average of shown items
+	 */
+	public void setEstimatedItemWidth(int width){
+		mExtentIndex.setEstimatedExtent(width);
+	}
+	
+	/**
+	 * In paging mode list rests only on page boundaries. Fling moves to next or previous page, slow release snaps to nearest page.
+	 * While page rests, items of neighbouring pages are bound and laid out, so swipe to them doesn't bind any views.
+	 */
+	public void setPagingEnabled(boolean enabled){
+		isPagingEnabled = enabled;
+		if(!enabled){
+			mPrerenderLeft = NO_VALUE;
+			mPrerenderRight = NO_VALUE;
+			removeCallbacks(mPrerenderPages);
+			isPrerenderPosted = false;
+		}
+		invalidate();
+	}
+	
+	public boolean isPagingEnabled(){
+		return isPagingEnabled;
+	}
+	
+	/**
+	 * @param width width of page in pixels, or 0 to use width of list
+	 */
+	public void setPageWidth(int width){
+		mPageWidth = Math.max(width, 0);
+	}
+	
+	/**
+	 * @return page nearest to current scroll position
+	 */
+	public int getCurrentPage(){
+		final int pageWidth = getPageWidth();
+		return (getScrollX() + pageWidth / 2) / pageWidth;
+	}
+	
+	/**
+	 * Scrolls list to page in paging mode, or to distance of page widths otherwise
+	 * @param smooth true to animate scroll, false to jump immediately
+	 */
+	public void scrollToPage(int page, boolean smooth){
+		if(mAdapter == null) throw new IllegalStateException("You are trying to scroll container with no adapter set. Set adapter first.");
+		if(isScrollingDisabled || mAdapter.getCount() == 0) return;
+		
+		mFrameScheduler.flush();
+		if(smooth){
+			snapToPage(page);
+		}
+		else{
+			mScroller.forceFinished(true);
+			mScrollTargetPosition = NO_VALUE;
+			mScrollTargetPage = NO_VALUE;
+			mTouchState = TOUCH_STATE_RESTING;
+			
+			final int x = getPageScrollX(page);
+			jumpTo(mExtentIndex.getPositionAt(x), x);
+		}
+	}
+	
+	private void snapToPage(int page){
+		mScroller.forceFinished(true);
+		mScrollTargetPosition = NO_VALUE;
+		mScrollTargetPage = Math.max(page, 0);
+		mTouchState = TOUCH_STATE_DISTANCE_SCROLL;
+		
+		final int target = getPageScrollX(mScrollTargetPage);
+		mScroller.startScroll(getScrollX(), 0, target - getScrollX(), 0, PAGE_SNAP_DURATION);
+		invalidate();
+	}
+	
+	private int getPageWidth(){
+		if(mPageWidth > 0) return mPageWidth;
+		return Math.max(getWidth(), 1);
+	}
+	
+	/**
+	 * Last page can be shorter, it ends at the end of content
+	 */
+	private int getPageScrollX(int page){
+		return Math.min(page * getPageWidth(), getMaxScrollX());
+	}
+	
+	private int getMaxScrollX(){
+		return Math.max(getContentWidth() - getWidth(), 0);
+	}
+	
+	private int getScrollTargetForPosition(int position){
+		return Math.min(mExtentIndex.getOffset(position), getMaxScrollX());
+	}
+	
+	/**
+	 * Moves list to scroll position x, where x is inside item on given position. If this item isn't laid out, 
+	 * all children are removed and list is filled again around it, without binding items in between.
+	 */
+	private void jumpTo(int position, int x){
+		final boolean isLaidOut = getChildCount() != 0 && position >= mFirstItemPosition && position <= mLastItemPosition;
+		if(!isLaidOut){
+			View v;
+			for(int i = getChildCount() - 1; i >= 0; i--){
+				v = getChildAt(i);
+				removeViewInLayout(v);
+				if(mViewObserver != null) mViewObserver.onViewRemovedFromParent(v, getItemPositionOfChild(i));
+				recycleView(v, getItemPositionOfChild(i));
+			}
+			
+			mFirstItemPosition = position;
+			mLastItemPosition = position;
+			mRightEdge = NO_VALUE;
+			updateFixedRightEdge();
+			
+			scrollTo(mExtentIndex.getOffset(position), 0);
+			refillLeftToRight(getScrollX(), getScrollX() + getWidth());
+		}
+		
+		scrollTo(x, 0);
+		refill();
+		invalidate();
+	}
+	
+	@Override
+	protected int computeHorizontalScrollRange() {
+		return getContentWidth();
+	}
+	
+	@Override
+	protected int computeHorizontalScrollOffset() {
+		return getScrollX();
+	}
+	
+	@Override
+	protected int computeHorizontalScrollExtent() {
+		return getWidth();
+	}
+	
 	protected void scrollByDelta(int deltaX){
 		if(isScrollingDisabled) return;
 		
@@ -599,16 +1261,38 @@ public class HorizontalList extends ViewGroup {
 	}
 	
 	protected void handleClick(Point p){
-		final int c = getChildCount();
-		View v;
-		final Rect r = new Rect();
-		for(int i=0; i < c; i++){
-			v = getChildAt(i);
-			v.getHitRect(r);
-			if(r.contains(getScrollX() + p.x, getScrollY() + p.y)){
-				if(mItemClickListener != null) mItemClickListener.onItemClick(v);
-			}
+		final int i = getChildIndexAt(getScrollX() + p.x, getScrollY() + p.y);
+		if(i != -1 && mItemClickListener != null) mItemClickListener.onItemClick(getChildAt(i));
+	}
+	
+	/**
+	 * Children are laid out from left to right in order of adapter positions, so their right edges grow with index.
+	 * Binary search finds first child, which ends after x.
+	 * @param x coordinate in content of list (scroll included)
+	 * @return index of child, or child count if no child ends after x
+	 */
+	protected int findFirstChildEndingAfter(int x){
+		int low = 0;
+		int high = getChildCount();
+		while(low < high){
+			final int mid = (low + high) >>> 1;
+			if(getChildAt(mid).getRight() > x) high = mid;
+			else low = mid + 1;
 		}
+		return low;
+	}
+	
+	/**
+	 * @param x coordinate in content of list (scroll included)
+	 * @param y coordinate in content of list (scroll included)
+	 * @return index of child which hit rectangle contains point, or -1
+	 */
+	protected int getChildIndexAt(int x, int y){
+		final int i = findFirstChildEndingAfter(x);
+		if(i >= getChildCount()) return -1;
+		
+		getChildAt(i).getHitRect(mHitRect);
+		return mHitRect.contains(x, y) ? i : -1;
 	}
 	
 	
@@ -616,10 +1300,42 @@ public class HorizontalList extends ViewGroup {
 		if(mAdapter != null) {
 			mAdapter.unregisterDataSetObserver(mDataObserver);
 		}
+		if(mAsyncBinder != null) mAsyncBinder.release();
 		mAdapter = adapter;
 		mAdapter.registerDataSetObserver(mDataObserver);
+		mMeasureCache.clear();
+		mExtentIndex.clear();
+		if(!isFixedItemWidthDeclared){
+			mDetectedItemCount = 0;
+			if(mFixedItemWidth > 0) setFixedWidthMode(0);
+		}
+		
+		if(adapter instanceof IAsyncAdapter){
+			mAsyncBinder = new AsyncViewBinder(this, (IAsyncAdapter) adapter, mAsyncCallback);
+			mAsyncBinder.setExecutor(mAsyncExecutor);
+			mAsyncBinder.setCommitBudget(mAsyncCommitBudget);
+		}
+		else{
+			mAsyncBinder = null;
+		}
 		reset();	
 	}
+	
+	/**
+	 * Executor on which IAsyncAdapter inflates and binds views. Shared pool of background threads is used if not set.
+	 */
+	public void setAsyncBindExecutor(Executor executor){
+		mAsyncExecutor = executor;
+		if(mAsyncBinder != null) mAsyncBinder.setExecutor(executor);
+	}
+	
+	/**
+	 * Time in milliseconds, which can be spent in one frame by swapping placeholders for views bound by IAsyncAdapter
+	 */
+	public void setAsyncCommitBudget(int millis){
+		mAsyncCommitBudget = millis;
+		if(mAsyncBinder != null) mAsyncBinder.setCommitBudget(millis);
+	}
 
 	private void enableChildrenCache() {
         setChildrenDrawnWithCacheEnabled(true);
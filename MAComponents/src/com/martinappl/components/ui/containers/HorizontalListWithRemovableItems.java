@@ -1,9 +1,10 @@
 package com.martinappl.components.ui.containers;
 
+import java.util.Arrays;
+
 import android.animation.Animator;
 import android.animation.Animator.AnimatorListener;
 import android.animation.AnimatorSet;
-import android.animation.ObjectAnimator;
 import android.animation.ValueAnimator;
 import android.animation.ValueAnimator.AnimatorUpdateListener;
 import android.content.Context;
@@ -13,11 +14,14 @@ import android.graphics.drawable.Drawable;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.View;
+import android.widget.Adapter;
 
 import com.martinappl.components.R;
 import com.martinappl.components.general.ToolBox;
+import com.martinappl.components.ui.containers.interfaces.IInsertItemsToAdapter;
 import com.martinappl.components.ui.containers.interfaces.IRemovableItemsAdapterComponent;
 import com.martinappl.components.ui.containers.interfaces.IRemoveFromAdapter;
+import com.martinappl.components.ui.containers.interfaces.IRemoveItemsFromAdapter;
 
 
 public class HorizontalListWithRemovableItems extends HorizontalList {
@@ -37,15 +41,37 @@ public class HorizontalListWithRemovableItems extends HorizontalList {
 	private int mDownY;
 	private boolean isPointerDown;
 	
-	private View mContainingView;
 	private int mContainingViewPosition;
-	private int mContainingViewIndex;
-	private Object mData;
 	
 	private final Rect mTempRect = new Rect();
-	private int mAnimationLastValue;
 	
-	private int mAlphaAnimationRunningOnIndex = -1;
+	/** Sorted adapter positions of items, which are being removed, null if no removal animates */
+	private int[] mAnimatedPositions;
+	private Animator mRemoveAnimator;
+	/** Width of laid out removed items including margins, following items slide by this distance */
+	private int mSlideWidth;
+	private float mSlideFraction;
+	private int mRemoveScrollStart;
+	/** When end of list is on screen, list scrolls back during slide, because content gets shorter */
+	private int mRemoveScrollShift;
+	
+	/** How long removed items can be restored by undo, 0 disables undo */
+	private int mUndoTimeout = 0;
+	/** Last removal, which can be undone. Positions are ascending, views are null for items which were not laid out */
+	private int[] mUndoPositions;
+	private Object[] mUndoItems;
+	private View[] mUndoViews;
+	/** View types of removed items, views are recycled under them when they are not restored */
+	private int[] mUndoViewTypes;
+	private int[] mUndoWidths;
+	private int[] mUndoHeights;
+	
+	private final Runnable mClearUndo = new Runnable() {
+		@Override
+		public void run() {
+			clearUndoBuffer();
+		}
+	};
 	
 	private boolean mEditable;
 
@@ -77,11 +103,11 @@ public class HorizontalListWithRemovableItems extends HorizontalList {
 		int r,t;
 		Drawable d;
 		for(int i = 0; i < c; i++){
-			if(i != mAlphaAnimationRunningOnIndex) d = mRemoveItemIconDrawable;
+			if(!isAnimated(mFirstItemPosition + i)) d = mRemoveItemIconDrawable;
 			else d = mIconForAnimation;
 			
 			v = getChildAt(i);
-			r = v.getRight();
+			r = v.getRight() + (int) v.getTranslationX();
 			t = v.getTop();
 			mTempRect.left = r-iw-mIconMarginRight;
 			mTempRect.top = t+mIconMarginTop;
@@ -98,12 +124,29 @@ public class HorizontalListWithRemovableItems extends HorizontalList {
 	
 	@Override
 	protected View addAndMeasureChild(View child, int layoutMode) {
-		if(layoutMode == LAYOUT_MODE_TO_BEFORE && mAlphaAnimationRunningOnIndex != -1){
-			mAlphaAnimationRunningOnIndex++;
-		}
+		//items laid out after removed ones during slide, have to be shifted with others
+		if(mAnimatedPositions != null && layoutMode == LAYOUT_MODE_AFTER) child.setTranslationX(-mSlideWidth * mSlideFraction);
 		
 		return super.addAndMeasureChild(child, layoutMode);
 	}
+	
+	@Override
+	protected void recycleView(View v, int position) {
+		v.setAlpha(1f);
+		v.setTranslationX(0);
+		super.recycleView(v, position);
+	}
+	
+	@Override
+	public void setAdapter(Adapter adapter) {
+		clearUndoBuffer();
+		super.setAdapter(adapter);
+	}
+	
+	@Override
+	protected int getRightLayoutExtension() {
+		return mAnimatedPositions != null ? mSlideWidth : 0;
+	}
 
 	@Override
 	public boolean onInterceptTouchEvent(MotionEvent ev) {
@@ -113,33 +156,15 @@ public class HorizontalListWithRemovableItems extends HorizontalList {
 		final int x = (int) ev.getX();
 		final int y = (int) ev.getY();
 		
-		final int iw = mRemoveItemIconDrawable.getIntrinsicWidth();
-		final int ih = mRemoveItemIconDrawable.getIntrinsicHeight();
-		
-		View v;
-		int r,t;
-		final int c = getChildCount();
-		for(int i = 0; i < c; i++){
-			v = getChildAt(i);
-			r = v.getRight();
-			t = v.getTop();
-			mTempRect.left = r-iw-mIconMarginRight - mIconClickableMarginExtend;
-			mTempRect.top = t+mIconMarginTop - mIconClickableMarginExtend;
-			mTempRect.right = r-mIconMarginRight + mIconClickableMarginExtend;
-			mTempRect.bottom = t+mIconMarginTop+ih + mIconClickableMarginExtend; 
+		final int i = getRemoveIconIndexAt(getScrollX() + x, y);
+		if(i != -1){
+			mDownX = x;
+			mDownY = y;
+			isPointerDown = true;
 			
-			if(mTempRect.contains(getScrollX() + x, y)){
-				mDownX = x;
-				mDownY = y;
-				isPointerDown = true;
-				
-				mContainingView = v;
-				mContainingViewPosition = mFirstItemPosition + i;
-				mData = mAdapter.getItem(mContainingViewPosition);
-				mContainingViewIndex = i;
-				
-				return true;
-			}
+			mContainingViewPosition = mFirstItemPosition + i;
+			
+			return true;
 		}
 		
 		isPointerDown = false;
@@ -147,12 +172,32 @@ public class HorizontalListWithRemovableItems extends HorizontalList {
 		return super.onInterceptTouchEvent(ev);
 	}
 
+	/**
+	 * Clickable area of remove icon ends mIconMarginRight - mIconClickableMarginExtend before right edge of its item,
+	 * so only first child ending after this point can have icon under x.
+	 * @return index of child which remove icon contains point in content coordinates, or -1
+	 */
+	private int getRemoveIconIndexAt(int x, int y){
+		final int i = findFirstChildEndingAfter(x + mIconMarginRight - mIconClickableMarginExtend);
+		if(i >= getChildCount()) return -1;
+		
+		final View v = getChildAt(i);
+		final int r = v.getRight();
+		final int t = v.getTop();
+		mTempRect.left = r-mRemoveItemIconDrawable.getIntrinsicWidth()-mIconMarginRight - mIconClickableMarginExtend;
+		mTempRect.top = t+mIconMarginTop - mIconClickableMarginExtend;
+		mTempRect.right = r-mIconMarginRight + mIconClickableMarginExtend;
+		mTempRect.bottom = t+mIconMarginTop+mRemoveItemIconDrawable.getIntrinsicHeight() + mIconClickableMarginExtend;
+		
+		return mTempRect.contains(x, y) ? i : -1;
+	}
+
 	@Override
 	public boolean onTouchEvent(MotionEvent ev) {
 		if(isPointerDown){
 			if(ev.getActionMasked() == MotionEvent.ACTION_UP){
-				if(ToolBox.getLineLength(ev.getX(), ev.getY(), mDownX, mDownY) < mTouchSlop && mAlphaAnimationRunningOnIndex == -1){						
-					createRemoveAnimations(mContainingViewIndex).start();
+				if(ToolBox.getLineLength(ev.getX(), ev.getY(), mDownX, mDownY) < mTouchSlop){						
+					removeItems(mContainingViewPosition);
 				}
 				
 				isPointerDown = false;
@@ -180,102 +225,456 @@ public class HorizontalListWithRemovableItems extends HorizontalList {
 //		refillRightToLeft(leftScreenEdge);					
 //	}
 	
-	private void onRemoveAnimationFinished(int position, View view, Object item){
-		if(mRemoveListener == null && mAdapter instanceof IRemoveFromAdapter){
-			((IRemoveFromAdapter) mAdapter).removeItemFromAdapter(position);
+	/**
+	 * Removes several items at once. Laid out items fade out together, then following items slide over the freed space 
+	 * by translation and adapter gets single batched removal at the end. Items which are not laid out are removed without animation.
+	 * Removal listener is asked about every item, from highest position to lowest.
+	 * @param positions adapter positions of removed items, in any order
+	 * @return false if removal didn't start, because previous removal still animates or no position is valid
+	 */
+	public boolean removeItems(int... positions){
+		if(mAdapter == null || positions == null || mRemoveAnimator != null) return false;
+		
+		final int[] sorted = positions.clone();
+		Arrays.sort(sorted);
+		int c = 0;
+		for(int i=0; i < sorted.length; i++){
+			if(sorted[i] < 0 || sorted[i] >= mAdapter.getCount()) continue;
+			if(c > 0 && sorted[c-1] == sorted[i]) continue;
+			sorted[c++] = sorted[i];
+		}
+		if(c == 0) return false;
+		
+		mAnimatedPositions = Arrays.copyOf(sorted, c);
+		mSlideWidth = 0;
+		mSlideFraction = 0;
+		isScrollingDisabled = true;
+		
+		mRemoveAnimator = createRemoveAnimations();
+		mRemoveAnimator.start();
+		return true;
+	}
+	
+	private boolean isAnimated(int position){
+		return mAnimatedPositions != null && Arrays.binarySearch(mAnimatedPositions, position) >= 0;
+	}
+	
+	private int getRemovedChildrenWidth(){
+		final int c = getChildCount();
+		int width = 0;
+		View v;
+		MarginLayoutParams lp;
+		for(int i=0; i < c; i++){
+			if(!isAnimated(mFirstItemPosition + i)) continue;
+			
+			v = getChildAt(i);
+			lp = (MarginLayoutParams) v.getLayoutParams();
+			width += lp.leftMargin + v.getWidth() + lp.rightMargin;
+		}
+		return width;
+	}
+	
+	/**
+	 * Lays out items, which will slide in from the right. Newly laid out items can be removed too, so it repeats until removed width is stable.
+	 */
+	private void onSlideStart(){
+		int width;
+		mSlideWidth = getRemovedChildrenWidth();
+		do{
+			width = mSlideWidth;
+			refill();
+			mSlideWidth = getRemovedChildrenWidth();
+		}while(mSlideWidth != width);
+		
+		mRemoveScrollStart = getScrollX();
+		mRemoveScrollShift = 0;
+		if(mRightEdge != NO_VALUE){
+			final int maxScroll = Math.max(mRightEdge - mSlideWidth - getWidth(), 0);
+			mRemoveScrollShift = Math.max(getScrollX() - maxScroll, 0);
 		}
-		else if(!mRemoveListener.onItemRemove(position,view,item) && mAdapter instanceof IRemoveFromAdapter){
-			((IRemoveFromAdapter) mAdapter).removeItemFromAdapter(position);	
+	}
+	
+	/**
+	 * Every item after removed ones is translated by width of removed items before it, no child is laid out again
+	 */
+	private void applySlide(){
+		final int c = getChildCount();
+		int removedWidth = 0;
+		View v;
+		MarginLayoutParams lp;
+		for(int i=0; i < c; i++){
+			v = getChildAt(i);
+			if(isAnimated(mFirstItemPosition + i)){
+				v.setAlpha(0f);
+				lp = (MarginLayoutParams) v.getLayoutParams();
+				removedWidth += lp.leftMargin + v.getWidth() + lp.rightMargin;
+			}
+			else{
+				v.setTranslationX(-removedWidth * mSlideFraction);
+			}
 		}
 		
+		if(mRemoveScrollShift != 0) scrollTo(mRemoveScrollStart - (int) (mRemoveScrollShift * mSlideFraction), 0);
+		invalidate();
+	}
+	
+	/**
+	 * Takes removed views out, moves remaining children to place where they slid and clears their translation.
+	 * Then removal listener is called and adapter gets one batched removal. Children already match new data, so list is not reset.
+	 * Removed views are kept for undo or recycled.
+	 */
+	private void onRemoveAnimationFinished(){
+		final int[] removed = mAnimatedPositions;
+		final View[] removedViews = new View[removed.length];
+		//read while removed items are still in adapter
+		final int[] viewTypes = new int[removed.length];
 		
-		mContainingView = null;
-		mContainingViewIndex = -1;
-		mContainingViewPosition = -1;
-		mData = null;
+		int removedWidth = 0;
+		int position = mFirstItemPosition;
+		int k;
+		View v;
+		MarginLayoutParams lp;
+		for(int i=0; i < getChildCount(); position++){
+			v = getChildAt(i);
+			v.setTranslationX(0);
+			v.setAlpha(1f);
+			
+			k = Arrays.binarySearch(removed, position);
+			if(k >= 0){
+				removeViewInLayout(v);
+				removedViews[k] = v;
+				viewTypes[k] = mAdapter.getItemViewType(position);
+				lp = (MarginLayoutParams) v.getLayoutParams();
+				removedWidth += lp.leftMargin + v.getWidth() + lp.rightMargin;
+			}
+			else{
+				v.offsetLeftAndRight(-removedWidth);
+				i++;
+			}
+		}
+		
+		//positions of remaining children after removal
+		k = Arrays.binarySearch(removed, mFirstItemPosition);
+		final int removedBeforeFirst = k >= 0 ? k : -k - 1;
+		mFirstItemPosition -= removedBeforeFirst;
+		mLastItemPosition = mFirstItemPosition + getChildCount() - 1;
+		mRightEdge = NO_VALUE;
+		
+		mAnimatedPositions = null;
+		mRemoveAnimator = null;
+		mSlideWidth = 0;
+		mSlideFraction = 0;
+		isScrollingDisabled = false;
+		
+		final boolean isEmpty = getChildCount() == 0;
+		
+		//from highest position, so positions of items removed by listener stay valid
+		final int[] batch = new int[removed.length];
+		final Object[] items = new Object[removed.length];
+		int c = 0;
+		isDataChangeAppliedToChildren = !isEmpty;
+		try{
+			for(int i = removed.length - 1; i >= 0; i--){
+				items[i] = mAdapter.getItem(removed[i]);
+				if(mRemoveListener == null || !mRemoveListener.onItemRemove(removed[i], removedViews[i], items[i])) batch[c++] = removed[i];
+			}
+			removeFromAdapter(batch, c);
+		}
+		finally{
+			isDataChangeAppliedToChildren = false;
+		}
+		
+		clearUndoBuffer();
+		if(mUndoTimeout > 0 && mAdapter instanceof IInsertItemsToAdapter){
+			mUndoPositions = removed;
+			mUndoItems = items;
+			mUndoViews = removedViews;
+			mUndoViewTypes = viewTypes;
+			mUndoWidths = new int[removed.length];
+			mUndoHeights = new int[removed.length];
+			for(int i=0; i < removed.length; i++){
+				if(removedViews[i] == null) continue;
+				mUndoWidths[i] = removedViews[i].getMeasuredWidth();
+				mUndoHeights[i] = removedViews[i].getMeasuredHeight();
+			}
+			postDelayed(mClearUndo, mUndoTimeout);
+		}
+		else{
+			for(int i=0; i < removed.length; i++){
+				recycleRemovedView(removedViews[i], removed[i], viewTypes[i]);
+			}
+		}
+		
+		//no item remained on screen, so there is nothing list could keep position by
+		if(isEmpty && mAdapter.getCount() > 0) scrollToPosition(Math.min(mFirstItemPosition, mAdapter.getCount() - 1), false);
+		invalidate();
 	}
 	
-	private Animator createRemoveAnimations(final int removedViewIndex){
-		if(mIconForAnimation == null) mIconForAnimation = mRemoveItemIconDrawable.getConstantState().newDrawable(getResources()).mutate();
-		mAlphaAnimationRunningOnIndex = removedViewIndex;
+	/**
+	 * @param positions positions in descending order
+	 */
+	private void removeFromAdapter(int[] positions, int count){
+		if(count == 0) return;
+		
+		if(mAdapter instanceof IRemoveItemsFromAdapter){
+			final int[] ascending = new int[count];
+			for(int i=0; i < count; i++){
+				ascending[i] = positions[count - 1 - i];
+			}
+			((IRemoveItemsFromAdapter) mAdapter).removeItemsFromAdapter(ascending);
+		}
+		else if(mAdapter instanceof IRemoveFromAdapter){
+			//children already match data, so each notification only updates extents, list is reset only when it binds asynchronously
+			for(int i=0; i < count; i++){
+				((IRemoveFromAdapter) mAdapter).removeItemFromAdapter(positions[i]);
+			}
+		}
+	}
+	
+	/**
+	 * Gives view of removed item back for reuse
+	 * @param position position, which item had before removal
+	 * @param viewType view type, which item had before removal
+	 */
+	private void recycleRemovedView(View v, int position, int viewType){
+		if(v == null) return;
+		if(mViewObserver != null) mViewObserver.onViewRemovedFromParent(v, position);
+		recycleViewOfType(v, viewType);
+	}
+	
+	/**
+	 * Puts back items of last removal. Retained views of items, which were laid out, are inserted with their measured size,
+	 * without inflating, binding or measuring. Following items slide apart, restored items fade in and list is not reset.
+	 * Adapter has to implement IInsertItemsToAdapter.
+	 * @return false if there is nothing to undo, undo timeout passed or removal still animates
+	 */
+	public boolean undoRemoval(){
+		if(mUndoPositions == null || mAnimatedPositions != null || !(mAdapter instanceof IInsertItemsToAdapter)) return false;
+		
+		final int[] positions = mUndoPositions;
+		final Object[] items = mUndoItems;
+		final View[] views = mUndoViews;
+		final int[] viewTypes = mUndoViewTypes;
+		final int[] widths = mUndoWidths;
+		final int[] heights = mUndoHeights;
+		dropUndoBuffer();
+		
+		final boolean isEmpty = getChildCount() == 0;
+		if(!isEmpty) insertRestoredViews(positions, views, viewTypes, widths, heights);
+		else{
+			for(int i=0; i < positions.length; i++){
+				recycleRemovedView(views[i], positions[i], viewTypes[i]);
+			}
+		}
+		
+		isDataChangeAppliedToChildren = !isEmpty;
+		try{
+			((IInsertItemsToAdapter) mAdapter).insertItemsToAdapter(positions, items);
+		}
+		finally{
+			isDataChangeAppliedToChildren = false;
+		}
+		if(isEmpty) return true;
+		
+		mRemoveAnimator = createUndoAnimations();
+		mRemoveAnimator.start();
+		return true;
+	}
+	
+	/**
+	 * Inserts restored views between children on their final places. Following children are moved to final places too,
+	 * but translated back, so nothing moves on screen until slide starts. Restored views, which don't get between children, are recycled.
+	 */
+	private void insertRestoredViews(int[] positions, View[] views, int[] viewTypes, int[] widths, int[] heights){
+		//restored items before first child only move positions of children, item restored at place of first child is inserted before it.
+		//Same strict comparison as counting of removed items before first child in onRemoveAnimationFinished
+		int k = 0;
+		while(k < positions.length && positions[k] < mFirstItemPosition + k) k++;
+		mFirstItemPosition += k;
+		
+		int slideWidth = 0;
+		int index, left, width;
+		View v, next;
+		MarginLayoutParams lp;
+		int j;
+		for(j = k; j < positions.length; j++){
+			index = positions[j] - mFirstItemPosition;
+			if(index >= getChildCount()) break; //after last child, refill lays it out if it gets on screen
+			
+			v = views[j];
+			if(v == null){
+				//item wasn't laid out when removed, children from its place on are laid out again by refill.
+				//Adapter doesn't contain restored items yet, so child on index has position lower by number of items restored before it
+				for(int i = getChildCount() - 1; i >= index; i--){
+					next = getChildAt(i);
+					removeViewInLayout(next);
+					if(mViewObserver != null) mViewObserver.onViewRemovedFromParent(next, mFirstItemPosition + i - j);
+					recycleView(next, mFirstItemPosition + i - j);
+				}
+				break;
+			}
+			
+			lp = (MarginLayoutParams) v.getLayoutParams();
+			next = getChildAt(index);
+			left = next.getLeft() - ((MarginLayoutParams)next.getLayoutParams()).leftMargin;
+			width = lp.leftMargin + widths[j] + lp.rightMargin;
+			for(int i = index; i < getChildCount(); i++){
+				getChildAt(i).offsetLeftAndRight(width);
+			}
+			
+			addViewInLayout(v, index, lp, true);
+			v.layout(left + lp.leftMargin, lp.topMargin, left + lp.leftMargin + widths[j], lp.topMargin + heights[j]);
+			slideWidth += width;
+		}
+		mLastItemPosition = mFirstItemPosition + getChildCount() - 1;
+		
+		//restored items before first child and after inserted ones are bound again by refill, when they get on screen
+		for(int i=0; i < positions.length; i++){
+			if(i < k || i >= j) recycleRemovedView(views[i], positions[i], viewTypes[i]);
+		}
+		
+		mAnimatedPositions = positions;
+		mSlideWidth = slideWidth;
+		mSlideFraction = 1f;
+		mRemoveScrollShift = 0;
 		isScrollingDisabled = true;
-		View removed = getChildAt(removedViewIndex);
+		applySlide();
+	}
+	
+	private void onUndoAnimationFinished(){
+		final int c = getChildCount();
+		View v;
+		for(int i=0; i < c; i++){
+			v = getChildAt(i);
+			v.setTranslationX(0);
+			v.setAlpha(1f);
+		}
+		
+		mAnimatedPositions = null;
+		mRemoveAnimator = null;
+		mSlideWidth = 0;
+		mSlideFraction = 0;
+		isScrollingDisabled = false;
+		invalidate();
+	}
+	
+	/**
+	 * @param millis how long items of last removal can be restored by undoRemoval(), 0 disables undo
+	 */
+	public void setUndoTimeout(int millis){
+		mUndoTimeout = Math.max(millis, 0);
+		if(mUndoTimeout == 0) clearUndoBuffer();
+	}
+	
+	public boolean canUndo(){
+		return mUndoPositions != null;
+	}
+	
+	/**
+	 * Drops items retained for undo, retained views are recycled
+	 */
+	public void clearUndoBuffer(){
+		if(mUndoViews != null){
+			for(int i=0; i < mUndoViews.length; i++){
+				recycleRemovedView(mUndoViews[i], mUndoPositions[i], mUndoViewTypes[i]);
+			}
+		}
+		dropUndoBuffer();
+	}
+	
+	private void dropUndoBuffer(){
+		removeCallbacks(mClearUndo);
+		mUndoPositions = null;
+		mUndoItems = null;
+		mUndoViews = null;
+		mUndoViewTypes = null;
+		mUndoWidths = null;
+		mUndoHeights = null;
+	}
+	
+	private Animator createUndoAnimations(){
+		final ValueAnimator slider = createSlideAnimation(1f, 0f);
+		final ValueAnimator fader = createFadeAnimation(0f, 1f);
+		
+		final AnimatorListener listener = new AnimatorListener() {			
+			public void onAnimationStart(Animator arg0) {}
+			public void onAnimationRepeat(Animator arg0) {}
+			public void onAnimationCancel(Animator arg0) {}
 			
-		ObjectAnimator fader = ObjectAnimator.ofFloat(removed, "alpha", 1f, 0f);
+			public void onAnimationEnd(Animator arg0) {
+				onUndoAnimationFinished();
+			}
+		};	
+		
+		AnimatorSet resultSet = new AnimatorSet();
+		resultSet.playSequentially(slider,fader);
+		resultSet.addListener(listener);
+		return resultSet;
+	}
+	
+	/**
+	 * Fades animated items and their remove icons
+	 */
+	private ValueAnimator createFadeAnimation(float from, float to){
+		if(mIconForAnimation == null) mIconForAnimation = mRemoveItemIconDrawable.getConstantState().newDrawable(getResources()).mutate();
+		mIconForAnimation.setAlpha((int) (255*from));
+		
+		ValueAnimator fader = ValueAnimator.ofFloat(from, to);
 		fader.setDuration(FADE_TIME);
 		fader.addUpdateListener(new AnimatorUpdateListener() {		
 			@Override
 			public void onAnimationUpdate(ValueAnimator anim) {
-				mIconForAnimation.setAlpha((int) (255*((Float)anim.getAnimatedValue())));
-				invalidate(mIconForAnimation.getBounds());
+				final float alpha = (Float) anim.getAnimatedValue();
+				mIconForAnimation.setAlpha((int) (255*alpha));
+				
+				final int c = getChildCount();
+				for(int i=0; i < c; i++){
+					if(isAnimated(mFirstItemPosition + i)) getChildAt(i).setAlpha(alpha);
+				}
+				invalidate();
 			}
 		});	
-		
-		
-		mAnimationLastValue = 0;
-		final int distance = removed.getWidth();
-		final boolean scrollDuringSlide;
-		if(mRightEdge != NO_VALUE && getScrollX() + distance > mRightEdge - getWidth()) scrollDuringSlide = true;
-		else scrollDuringSlide = false;
-		
-		ValueAnimator slider = ValueAnimator.ofInt(0,-distance);
+		return fader;
+	}
+	
+	/**
+	 * Slides items following animated ones by fraction of slide width
+	 */
+	private ValueAnimator createSlideAnimation(float from, float to){
+		ValueAnimator slider = ValueAnimator.ofFloat(from, to);
+		slider.setDuration(SLIDE_TIME);
 		slider.addUpdateListener(new AnimatorUpdateListener() {			
 			@Override
 			public void onAnimationUpdate(ValueAnimator anim) {
-				final int val = (Integer) anim.getAnimatedValue();
-				int dx = val - mAnimationLastValue;
-				mAnimationLastValue = val;
-				
-				final int c = getChildCount();
-				View v;
-				for(int i=removedViewIndex+1; i < c; i++){
-					v = getChildAt(i);
-					v.layout(v.getLeft()+dx, v.getTop(), v.getRight()+dx, v.getBottom());
-				}
-				
-				if(scrollDuringSlide){
-					if(getScrollX() + dx < 0) dx = -getScrollX();
-					scrollBy(dx, 0);
-				}
+				mSlideFraction = (Float) anim.getAnimatedValue();
+				applySlide();
 			}
 		});		
-		slider.setDuration(SLIDE_TIME);
+		return slider;
+	}
+	
+	private Animator createRemoveAnimations(){
+		final ValueAnimator fader = createFadeAnimation(1f, 0f);
+		final ValueAnimator slider = createSlideAnimation(0f, 1f);
+		slider.addListener(new AnimatorListener() {
+			public void onAnimationStart(Animator arg0) {
+				onSlideStart();
+			}
+			public void onAnimationRepeat(Animator arg0) {}
+			public void onAnimationCancel(Animator arg0) {}
+			public void onAnimationEnd(Animator arg0) {}
+		});
 		
-//		View v;
-//		
-//		final float distance = -removed.getWidth();
-//		final ArrayList<Animator> anims = new ArrayList<Animator>();
-//		ObjectAnimator slider = null;
-//		for(int i=removedViewIndex+1; i < getChildCount(); i++){
-//			v = getChildAt(i);
-//			slider = ObjectAnimator.ofFloat(v, "translationX", 0f, distance);
-//			anims.add(slider);
-//		}
-//		if(slider != null) slider.addUpdateListener(new AnimatorUpdateListener() {		
-//			@Override
-//			public void onAnimationUpdate(ValueAnimator anim) {
-//				invalidate();
-//			}
-//		});	
-//		
-//		AnimatorSet sliderSet = new AnimatorSet();
-//		sliderSet.playTogether(anims);
-//		sliderSet.setDuration(SLIDE_TIME);
-				
 		final AnimatorListener listener = new AnimatorListener() {			
 			public void onAnimationStart(Animator arg0) {}
 			public void onAnimationRepeat(Animator arg0) {}
 			public void onAnimationCancel(Animator arg0) {}
 			
 			public void onAnimationEnd(Animator arg0) {
-				mAlphaAnimationRunningOnIndex = -1;
-				isScrollingDisabled = false;
-				
-				onRemoveAnimationFinished(mContainingViewPosition, mContainingView, mData);
+				onRemoveAnimationFinished();
 			}
 		};	
 		
-		
 		AnimatorSet resultSet = new AnimatorSet();
 		resultSet.playSequentially(fader,slider);
 		
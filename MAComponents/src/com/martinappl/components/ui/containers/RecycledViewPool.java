@@ -0,0 +1,101 @@
+package com.martinappl.components.ui.containers;
+
+import java.util.ArrayList;
+
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+import android.view.View;
+
+/**
+ * @author Martin Appl
+ *
+ * Pool of views for reuse, which can be shared by several containers (HorizontalList, EndlessLoopAdapterContainer, content bands).
+ * View scrolled out of one container can be bound again in another one, so containers stacked on one screen don't inflate 
+ * their own sets of views. Views are kept by view type, with limit per type and global limit of pooled views.
+ * View type must mean same kind of view in all containers sharing the pool.
+ * Pool is not thread safe, use it only from UI thread.
+ */
+public class RecycledViewPool {
+	public static final int DEFAULT_MAX_PER_TYPE = 10;
+	public static final int DEFAULT_MAX_TOTAL = 100;
+	
+	private final SparseArray<ArrayList<View>> mScrap = new SparseArray<ArrayList<View>>();
+	private final SparseIntArray mMaxPerType = new SparseIntArray();
+	private int mMaxTotal = DEFAULT_MAX_TOTAL;
+	private int mSize;
+	
+	/**
+	 * @return view of given type for reuse or null if pool has none
+	 */
+	public View get(int viewType){
+		final ArrayList<View> scrap = mScrap.get(viewType);
+		if(scrap == null || scrap.isEmpty()) return null;
+		
+		mSize--;
+		return scrap.remove(scrap.size() - 1);
+	}
+	
+	/**
+	 * Offers view for reuse. View must be already removed from its parent. If limit of type or pool is reached, view is dropped.
+	 * @return true if view was pooled
+	 */
+	public boolean put(int viewType, View v){
+		if(v == null || v.getParent() != null) return false;
+		if(mSize >= mMaxTotal) return false;
+		
+		ArrayList<View> scrap = mScrap.get(viewType);
+		if(scrap == null){
+			scrap = new ArrayList<View>();
+			mScrap.put(viewType, scrap);
+		}
+		if(scrap.size() >= mMaxPerType.get(viewType, DEFAULT_MAX_PER_TYPE)) return false;
+		
+		scrap.add(v);
+		mSize++;
+		return true;
+	}
+	
+	/**
+	 * Sets how many views of type can be kept. Views over new limit are dropped.
+	 */
+	public void setMaxRecycledViews(int viewType, int max){
+		mMaxPerType.put(viewType, max);
+		
+		final ArrayList<View> scrap = mScrap.get(viewType);
+		while(scrap != null && scrap.size() > max){
+			scrap.remove(scrap.size() - 1);
+			mSize--;
+		}
+	}
+	
+	/**
+	 * Sets how many views of all types together can be kept
+	 */
+	public void setMaxTotal(int max){
+		mMaxTotal = max;
+		for(int i=0; i < mScrap.size() && mSize > max; i++){
+			final ArrayList<View> scrap = mScrap.valueAt(i);
+			while(!scrap.isEmpty() && mSize > max){
+				scrap.remove(scrap.size() - 1);
+				mSize--;
+			}
+		}
+	}
+	
+	/**
+	 * @return number of views in pool
+	 */
+	public int size(){
+		return mSize;
+	}
+	
+	/**
+	 * Drops all pooled views, good place to call it is onStop of activity
+	 */
+	public void clear(){
+		for(int i=0; i < mScrap.size(); i++){
+			mScrap.valueAt(i).clear();
+		}
+		mSize = 0;
+	}
+}
@@ -1,11 +1,9 @@
 package com.martinappl.components.ui.containers.contentbands;
 
-import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.List;
 
 import android.content.Context;
@@ -21,8 +19,10 @@ import android.view.ViewGroup;
 import android.widget.Scroller;
 
 import com.martinappl.components.R;
+import com.martinappl.components.general.SpatialGridIndex;
 import com.martinappl.components.general.ToolBox;
 import com.martinappl.components.general.Validate;
+import com.martinappl.components.ui.containers.RecycledViewPool;
 
 
 /**
@@ -35,6 +35,9 @@ import com.martinappl.components.general.Validate;
  * Method getLayoutParamsForTile helps generate layout params from data objects. If you don't set Layout params in getViewForTile, this
  * methods is called automatically afterwards.
  * 
+ * Only tiles intersecting visible area on both axes are attached, so when band scrolls vertically in GRID_MODE_FIXED_SIZE,
+ * tiles above and below screen are recycled too.
+ * 
  * DSP = device specific pixel
  */ 
 public class BasicContentBand extends ViewGroup {
@@ -75,9 +78,15 @@ public class BasicContentBand extends ViewGroup {
 	private int mDspHeight = NO_VALUE; 
 	protected int mDspHeightModulo;
 		//refilling
-	protected int mCurrentlyLayoutedViewsLeftEdgeDsp;
-	protected int mCurrentlyLayoutedViewsRightEdgeDsp;
+	/** Area in DSP, whose tiles were attached by last refill. Tiles intersecting it and screen are attached. */
+	protected final Rect mFilledAreaDsp = new Rect();
+	private final Rect mScreenAreaDsp = new Rect();
+	private final Rect mRefreshedAreaDsp = new Rect();
+	private final Rect mEmptyArea = new Rect();
+	/** Attached tiles, finds tiles leaving screen */
+	final VisibleTilesWindow mVisibleTiles = new VisibleTilesWindow();
 	private final ArrayList<View> mTempViewArray = new ArrayList<View>();
+	private final ArrayList<View> mEnteringViews = new ArrayList<View>();
 		//touch, scrolling
 	protected int mTouchState = TOUCH_STATE_RESTING;
 	private float mLastMotionX;
@@ -94,10 +103,45 @@ public class BasicContentBand extends ViewGroup {
 //    private final Rect mTempRect = new Rect();
 	
 	private boolean mIsZOrderEnabled;
-	private int[] mDrawingOrderArray;
+	/** Indexes of children in order of drawing, sorted by z kept in mDrawingOrderZ */
+	private int[] mDrawingOrderArray = new int[16];
+	private int[] mDrawingOrderZ = new int[16];
+	private int mDrawingOrderCount;
 	
     	//listeners
     private OnItemClickListener mItemClickListener;
+    
+    /** Rebinds only tiles, which changed in AbstractAdapter */
+    private final AbstractAdapter.IDataListener mDataListener = new AbstractAdapter.IDataListener() {
+		@Override
+		public void onDataSetChanged() {
+			resetChildren();
+			requestLayout();
+			invalidate();
+		}
+		
+		@Override
+		public void onTileChanged(AbstractAdapter<?, ?> adapter, TileBase tile) {
+			detachTileViews(tile);
+			attachChangedTile(adapter, tile);
+			invalidate();
+		}
+		
+		@Override
+		public void onTileRemoved(AbstractAdapter<?, ?> adapter, TileBase tile) {
+			detachTileViews(tile);
+			invalidate();
+		}
+	};
+	
+	/** Replaces placeholders by tiles loaded by PagedTileAdapter */
+	private final PagedTileAdapter.IChunkListener mChunkListener = new PagedTileAdapter.IChunkListener() {
+		@Override
+		public void onAreaLoaded(Rect area) {
+			refreshArea(area);
+			invalidate();
+		}
+	};
 
 	public BasicContentBand(Context context, AttributeSet attrs, int defStyle) {
 		super(context, attrs, defStyle);
@@ -136,6 +180,16 @@ public class BasicContentBand extends ViewGroup {
 		return px / mDspPixelRatio;
 	}
 	
+	/**
+	 * Area of screen in DSP, partially visible DSP are included
+	 */
+	protected void getScreenAreaDsp(Rect out){
+		final int l = getScrollX();
+		final int t = getScrollY();
+		out.set(ToolBox.floorDiv(l, mDspPixelRatio), ToolBox.floorDiv(t, mDspPixelRatio),
+				-ToolBox.floorDiv(-(l + getWidth()), mDspPixelRatio), -ToolBox.floorDiv(-(t + getHeight()), mDspPixelRatio));
+	}
+	
 	@Override
 	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
 		int widthSpecMode = MeasureSpec.getMode(widthMeasureSpec);
@@ -225,10 +279,12 @@ public class BasicContentBand extends ViewGroup {
 		}
 	}
 	
-	protected void layoutNewChildren(View[] list){
-		for(int i=0; i < list.length; i++){
-			layoutTileView(list[i]);
-			list[i].setDrawingCacheEnabled(true);
+	protected void layoutNewChildren(List<View> list){
+		View v;
+		for(int i=0; i < list.size(); i++){
+			v = list.get(i);
+			layoutTileView(v);
+			v.setDrawingCacheEnabled(true);
 		}
 	}
 	
@@ -269,32 +325,62 @@ public class BasicContentBand extends ViewGroup {
 //		return res;
 //	}
 	
+	/**
+	 * Rebuilds drawing order of all children from scratch. While scrolling, order is kept incrementally 
+	 * by insertToDrawingOrder and removeFromDrawingOrder.
+	 */
 	protected void rearrangeViewsAccordingZOrder(){
-		View[] tempArr = new View[getChildCount()];
+		mDrawingOrderCount = 0;
 		for(int i=0; i < getChildCount(); i++){
-			tempArr[i] = getChildAt(i);
-			((LayoutParams)tempArr[i].getLayoutParams()).viewgroupIndex = i;
+			insertToDrawingOrder(i);
+		}
+	}
+	
+	/**
+	 * Puts child to drawing order after all children with same or lower z, so children with same z are drawn in order of adding.
+	 * Child must be last in group or indexes of following children must be already shifted.
+	 */
+	private void insertToDrawingOrder(int childIndex){
+		if(mDrawingOrderCount == mDrawingOrderArray.length){
+			final int capacity = mDrawingOrderArray.length * 2;
+			mDrawingOrderArray = Arrays.copyOf(mDrawingOrderArray, capacity);
+			mDrawingOrderZ = Arrays.copyOf(mDrawingOrderZ, capacity);
 		}
 		
-		final Comparator<View> comparator = new Comparator<View>() {
-			@Override
-			public int compare(View lhs, View rhs) {
-				final LayoutParams l = (LayoutParams) lhs.getLayoutParams();
-				final LayoutParams r = (LayoutParams) rhs.getLayoutParams();
-				
-				if(l.z == r.z) return 0;
-				else if(l.z < r.z) return -1;
-				else return 1;
-			}
-		};
+		final int z = ((LayoutParams)getChildAt(childIndex).getLayoutParams()).z;
 		
-		Arrays.sort(tempArr, comparator);
-		mDrawingOrderArray = new int[tempArr.length];
-		for(int i=0; i<tempArr.length; i++){
-			mDrawingOrderArray[i] = ((LayoutParams)tempArr[i].getLayoutParams()).viewgroupIndex;
+		//first position with greater z
+		int lo = 0;
+		int hi = mDrawingOrderCount;
+		while(lo < hi){
+			final int mid = (lo + hi) >>> 1;
+			if(mDrawingOrderZ[mid] <= z) lo = mid + 1;
+			else hi = mid;
 		}
-	}
 		
+		System.arraycopy(mDrawingOrderArray, lo, mDrawingOrderArray, lo + 1, mDrawingOrderCount - lo);
+		System.arraycopy(mDrawingOrderZ, lo, mDrawingOrderZ, lo + 1, mDrawingOrderCount - lo);
+		mDrawingOrderArray[lo] = childIndex;
+		mDrawingOrderZ[lo] = z;
+		mDrawingOrderCount++;
+	}
+	
+	/**
+	 * Call before child is removed from group. Children after it move one index down.
+	 */
+	private void removeFromDrawingOrder(int childIndex){
+		int j = 0;
+		for(int i=0; i < mDrawingOrderCount; i++){
+			final int index = mDrawingOrderArray[i];
+			if(index == childIndex) continue;
+			
+			mDrawingOrderArray[j] = index > childIndex ? index - 1 : index;
+			mDrawingOrderZ[j] = mDrawingOrderZ[i];
+			j++;
+		}
+		mDrawingOrderCount = j;
+	}
+	
 	@Override
 	protected int getChildDrawingOrder(int count, int i) {
 		return mDrawingOrderArray[i];
@@ -302,149 +388,143 @@ public class BasicContentBand extends ViewGroup {
 
 	protected void resetChildren(){		
 		removeAllViewsInLayout();
+		mVisibleTiles.clear();
+		mDrawingOrderCount = 0;
 		fillEmptyContainer();
-		mDrawingOrderArray = null;
 	}
 	
 	private void fillEmptyContainer(){
 		if(mAdapter == null) return; 
 		
-		final int leftScreenEdge = getScrollX();
-		final int rightScreenEdge = leftScreenEdge + getWidth();
-		final int dspLeftScreenEdge = pxToDsp(leftScreenEdge);
-		final int dspRightScreenEdge = pxToDsp(rightScreenEdge) + 1;
-		
-		View[] list = mAdapter.getViewsVisibleInRange(dspLeftScreenEdge, dspRightScreenEdge);
-			
-		int dspMostRight = 0;
-		int dspMostLeft = dspRightScreenEdge;
-		LayoutParams lp;
-		for(int i=0; i < list.length; i++){
-			lp = (LayoutParams) list[i].getLayoutParams();
-			if(lp.getDspRight() > dspMostRight) dspMostRight = lp.getDspRight();
-			if(lp.dspLeft < dspMostLeft) dspMostLeft = lp.dspLeft;
-			addViewInLayout(list[i], -1, list[i].getLayoutParams(), true);
-		}
-		
-		if(mIsZOrderEnabled) rearrangeViewsAccordingZOrder();
-		
-		mCurrentlyLayoutedViewsLeftEdgeDsp = dspMostLeft;
-		mCurrentlyLayoutedViewsRightEdgeDsp= dspMostRight;
+		mFilledAreaDsp.setEmpty();
+		mVisibleTiles.clear();
+		refillVisibleArea();
 	}
 	
 	/**
-	 * Checks and refills empty area on the left edge of screen
+	 * Attaches tiles which got on screen since last refill. Tiles intersecting area filled last time are attached already,
+	 * so only parts of screen outside of that area are searched and work is proportional to number of entering tiles.
 	 */
-	protected void refillLeftSide(){
+	protected void refillVisibleArea(){
 		if(mAdapter == null) return;
 		
-		final int leftScreenEdge = getScrollX();
-		final int dspLeftScreenEdge = pxToDsp(leftScreenEdge);
-		final int dspNextViewsRight = mCurrentlyLayoutedViewsLeftEdgeDsp;
-		
-		if(dspLeftScreenEdge >= dspNextViewsRight) return;
-//		Logger.d(LOG_TAG, "from " + dspLeftScreenEdge + ", to " + dspNextViewsRight);
+		getScreenAreaDsp(mScreenAreaDsp);
+		if(mScreenAreaDsp.equals(mFilledAreaDsp)) return;
 		
-		View[] list = mAdapter.getViewsByRightSideRange(dspLeftScreenEdge, dspNextViewsRight);
-//		list = filterAlreadyPresentViews(list);
+		mEnteringViews.clear();
+		getViewsInArea(mScreenAreaDsp, mFilledAreaDsp, mEnteringViews);
+		attachViews(mEnteringViews);
+		mEnteringViews.clear();
 		
-		int dspMostLeft = dspNextViewsRight;
-		LayoutParams lp;
-		for(int i=0; i < list.length; i++){
-			lp = (LayoutParams) list[i].getLayoutParams();
-			if(lp.dspLeft < dspMostLeft) dspMostLeft = lp.dspLeft;
-			addViewInLayout(list[i], -1, list[i].getLayoutParams(), true);
+		mFilledAreaDsp.set(mScreenAreaDsp);
+	}
+	
+	/**
+	 * Adds views of tiles to container and lays them out
+	 */
+	protected void attachViews(List<View> list){
+		View v;
+		for(int i=0; i < list.size(); i++){
+			v = list.get(i);
+			addViewInLayout(v, -1, v.getLayoutParams(), true);
+			mVisibleTiles.add(v);
+			if(mIsZOrderEnabled) insertToDrawingOrder(getChildCount() - 1);
 		}
 		
-		if(list.length > 0){
+		if(list.size() > 0){
 			layoutNewChildren(list);
 		}
-		
-		mCurrentlyLayoutedViewsLeftEdgeDsp = dspMostLeft;
 	}
 	
 	/**
-	 * Checks and refills empty area on the right
+	 * Removes views from container and offers them for recycling
 	 */
-	protected void refillRightSide(){	
-		if(mAdapter == null) return;
-		
-		final int rightScreenEdge = getScrollX() + getWidth();
-		final int dspNextAddedViewsLeft = mCurrentlyLayoutedViewsRightEdgeDsp;
-
-		int dspRightScreenEdge = pxToDsp(rightScreenEdge) + 1;
-		if(dspRightScreenEdge > mAdapter.getEnd()) dspRightScreenEdge = mAdapter.getEnd();
-		
-		if(dspNextAddedViewsLeft >= dspRightScreenEdge) return;
-		
-		View[] list = mAdapter.getViewsByLeftSideRange(dspNextAddedViewsLeft, dspRightScreenEdge);
-//		list = filterAlreadyPresentViews(list);
-		
-		int dspMostRight = 0;
-		LayoutParams lp;
-		for(int i=0; i < list.length; i++){
-			lp = (LayoutParams) list[i].getLayoutParams();
-			if(lp.getDspRight() > dspMostRight) dspMostRight = lp.getDspRight();
-			addViewInLayout(list[i], -1, list[i].getLayoutParams(), true);
-		}
-		
-		if(list.length > 0){
-			layoutNewChildren(list);
+	private void detachViews(List<View> list){
+		View v;
+		for(int i=0; i < list.size(); i++){
+			v = list.get(i);
+			mVisibleTiles.remove(v);
+			if(mIsZOrderEnabled) removeFromDrawingOrder(indexOfChild(v));
+			removeViewInLayout(v);
+			mAdapter.offerViewForRecycling(v);
 		}
-		
-		mCurrentlyLayoutedViewsRightEdgeDsp = dspMostRight;
 	}
 	
 	/**
-	 * Remove non visible views laid out of the screen
+	 * Attaches view of tile, which was inserted or changed in adapter, if tile intersects filled area.
+	 * Tiles outside of it get attached by refill, when they come on screen.
 	 */
-	private void removeNonVisibleViews(){
-		if(getChildCount() == 0) return;
-    	
-		final int leftScreenEdge = getScrollX();
-		final int rightScreenEdge = leftScreenEdge + getWidth();		
-		
-		int dspRightScreenEdge = pxToDsp(rightScreenEdge);
-		if(dspRightScreenEdge >= 0) dspRightScreenEdge++; //to avoid problem with rounding of values
-		
-		int dspLeftScreenEdge = pxToDsp(leftScreenEdge);
-		if(dspLeftScreenEdge <= 0) dspLeftScreenEdge--; //when values are <0 they get floored to value which is larger
+	protected void attachChangedTile(AbstractAdapter<?, ?> adapter, TileBase t){
+		if(mFilledAreaDsp.isEmpty() || t.getX() >= mFilledAreaDsp.right || t.getXRight() <= mFilledAreaDsp.left 
+				|| t.getY() >= mFilledAreaDsp.bottom || t.getYBottom() <= mFilledAreaDsp.top) return;
+		
+		mEnteringViews.clear();
+		mEnteringViews.add(adapter.obtainView(t));
+		attachViews(mEnteringViews);
+		mEnteringViews.clear();
+	}
+	
+	/**
+	 * Replaces views in part of filled area by views, which adapter returns for it now. Used when adapter loaded data of area,
+	 * which was shown by placeholders. All views intersecting refreshed part are detached, so they can't get attached twice.
+	 */
+	protected void refreshArea(Rect area){
+		if(mFilledAreaDsp.isEmpty()) return;
+		mRefreshedAreaDsp.set(area);
+		if(!mRefreshedAreaDsp.intersect(mFilledAreaDsp)) return;
 		
 		mTempViewArray.clear();
 		View v;
-		for(int i=0; i<getChildCount(); i++){
+		LayoutParams lp;
+		for(int i=0; i < getChildCount(); i++){
 			v = getChildAt(i);
-			if(!isOnScreen((LayoutParams) v.getLayoutParams(), dspLeftScreenEdge, dspRightScreenEdge)) mTempViewArray.add(v);
-		}
-		
-		for(int i=0; i < mTempViewArray.size(); i++){
-			v = mTempViewArray.get(i);
-			removeViewInLayout(v);
-			mAdapter.offerViewForRecycling(v);
+			lp = (LayoutParams) v.getLayoutParams();
+			if(lp.dspLeft < mRefreshedAreaDsp.right && lp.getDspRight() > mRefreshedAreaDsp.left 
+					&& lp.dspTop < mRefreshedAreaDsp.bottom && lp.getDspBottom() > mRefreshedAreaDsp.top) mTempViewArray.add(v);
 		}
+		detachViews(mTempViewArray);
 		mTempViewArray.clear();
 		
-		int dspMostRight = dspLeftScreenEdge;
-		int dspMostLeft = dspRightScreenEdge;
-		LayoutParams lp;
+		mEnteringViews.clear();
+		mEmptyArea.setEmpty();
+		getViewsInArea(mRefreshedAreaDsp, mEmptyArea, mEnteringViews);
+		attachViews(mEnteringViews);
+		mEnteringViews.clear();
+	}
+	
+	/**
+	 * Detaches all views displaying tile. Views are matched by identity of tile, so tiles sharing id don't detach each other
+	 */
+	private void detachTileViews(TileBase tile){
+		mTempViewArray.clear();
+		View v;
 		for(int i=0; i < getChildCount(); i++){
-			lp = (LayoutParams) getChildAt(i).getLayoutParams();
-			if(lp.getDspRight() > dspMostRight) dspMostRight = lp.getDspRight();
-			if(lp.dspLeft < dspMostLeft) dspMostLeft = lp.dspLeft;
+			v = getChildAt(i);
+			if(((LayoutParams) v.getLayoutParams()).tile == tile) mTempViewArray.add(v);
 		}
-		
-		mCurrentlyLayoutedViewsLeftEdgeDsp = dspMostLeft;
-		mCurrentlyLayoutedViewsRightEdgeDsp = dspMostRight;
-        		
-	}	
+		detachViews(mTempViewArray);
+		mTempViewArray.clear();
+	}
+	
+	/**
+	 * Adds to out Views for tiles intersecting area, which don't intersect filled area
+	 */
+	protected void getViewsInArea(Rect area, Rect filled, List<View> out){
+		mAdapter.getViewsInArea(area, filled, out);
+	}
 	
-	//check if View with specified LayoutParams is currently on screen
-	private boolean isOnScreen(LayoutParams lp, int dspLeftScreenEdge, int dspRightScreenEdge){
-		final int left = lp.dspLeft;
-		final int right = left + lp.dspWidth;
+	/**
+	 * Remove non visible views laid out of the screen. Only views crossing edges of screen are visited.
+	 */
+	private void removeNonVisibleViews(){
+		if(getChildCount() == 0) return;
+		
+		getScreenAreaDsp(mScreenAreaDsp);
 		
-		if(right > dspLeftScreenEdge && left < dspRightScreenEdge) return true;
-		else return false;
+		mTempViewArray.clear();
+		mVisibleTiles.collectExits(mScreenAreaDsp, mTempViewArray);
+		detachViews(mTempViewArray);
+		mTempViewArray.clear();
 	}
 	
 	@Override
@@ -673,10 +753,7 @@ public class BasicContentBand extends ViewGroup {
 		}
 		
 		removeNonVisibleViews();
-		if(mScrollDirection == DIRECTION_LEFT) refillLeftSide();
-		if(mScrollDirection == DIRECTION_RIGHT) refillRightSide();
-		
-		if(mIsZOrderEnabled) rearrangeViewsAccordingZOrder();
+		refillVisibleArea();
 	}
 	
 	public void fling(int velocityX, int velocityY){		
@@ -745,7 +822,11 @@ public class BasicContentBand extends ViewGroup {
 	 * Set Adapter with backing data
 	 */
 	public void setAdapter(Adapter adapter) {
+		if(mAdapter instanceof AbstractAdapter) ((AbstractAdapter<?, ?>) mAdapter).setDataChangeListener(null);
+		if(mAdapter instanceof PagedTileAdapter) ((PagedTileAdapter<?>) mAdapter).setChunkListener(null);
 		this.mAdapter = adapter;
+		if(adapter instanceof AbstractAdapter) ((AbstractAdapter<?, ?>) adapter).setDataChangeListener(mDataListener);
+		if(adapter instanceof PagedTileAdapter) ((PagedTileAdapter<?>) adapter).setChunkListener(mChunkListener);
 		requestLayout();
 	}
 	
@@ -785,11 +866,12 @@ public class BasicContentBand extends ViewGroup {
 	
 	/**
 	 * Set to true if you want component to work with tile z parameter;
-	 * If you don't have any overlapping view, leave it on default false, because computing
-	 * with z order makes rendering slower.
+	 * If you don't have any overlapping view, leave it on default false. Drawing order is updated only when tiles
+	 * enter or leave screen, so scrolling costs about the same in both modes.
 	 */
 	public void setZOrderEnabled(boolean enable){
 		mIsZOrderEnabled = enable;
+		if(enable) rearrangeViewsAccordingZOrder();
 		setChildrenDrawingOrderEnabled(enable); 
 	}
 	
@@ -852,6 +934,15 @@ public class BasicContentBand extends ViewGroup {
 		 */
 		public abstract View[] getViewsVisibleInRange(int from, int to);
 		
+		/**
+		 * Adds to out Views of tiles which intersect area in device specific coordinates, but don't intersect filled area.
+		 * Tiles intersecting filled area are already displayed. Container calls this while scrolling and passes same list every time,
+		 * so implementation should not allocate anything besides views it creates.
+		 * @param area left, top inclusive, right, bottom exclusive
+		 * @param filled may be empty
+		 */
+		public abstract void getViewsInArea(Rect area, Rect filled, List<View> out);
+		
 		/**
 		 * Puts View, which is not needed anymore back to Adapter. View will be used later instead of creating or inflating same view.
 		 */
@@ -866,8 +957,12 @@ public class BasicContentBand extends ViewGroup {
 		public int dspWidth;
 		public int dspHeight;
 		public int z;
+
+		/** Identifies entries of attached view in VisibleTilesWindow */
+		int visibilityStamp;
 		
-		private int viewgroupIndex;
+		/** Tile of AbstractAdapter bound to view, band finds views of changed tile by it */
+		TileBase tile;
 
 		public LayoutParams() {
 			super(NO_VALUE, NO_VALUE);
@@ -876,15 +971,26 @@ public class BasicContentBand extends ViewGroup {
 		public int getDspRight(){
 			return dspLeft + dspWidth;
 		}
+		
+		public int getDspBottom(){
+			return dspTop + dspHeight;
+		}
 	}
 	
 	
 	
 	public static abstract class AbstractAdapter <V extends View, Tile extends TileBase> implements Adapter{
 		private final ViewCache<V> mViewCache = new ViewCache<V>();
+		private RecycledViewPool mRecycledViewPool;
+		private int mRecycledViewType;
 		
 		protected ArrayList<Tile> mTilesByBegining;
 		protected ArrayList<Tile> mTilesByEnd;
+		/** Indexes tiles by their rectangles, items of index are slots in mTilesBySlot */
+		private final SpatialGridIndex mSpatialIndex = new SpatialGridIndex();
+		private final ArrayList<Tile> mTilesBySlot = new ArrayList<Tile>();
+		private int[] mFreeSlots = new int[16];
+		private int mFreeSlotCount;
 //		protected SparseArray<Tile> mTilesByNumber;
 		protected IDataListener mChangeListener;
 		
@@ -914,7 +1020,23 @@ public class BasicContentBand extends ViewGroup {
 		@SuppressWarnings("unchecked")
 		@Override
 		public void offerViewForRecycling(View view){
-			mViewCache.cacheView((V) view);
+			if(mRecycledViewPool != null) mRecycledViewPool.put(mRecycledViewType, view);
+			else mViewCache.cacheView((V) view);
+		}
+		
+		/**
+		 * Shares views for reuse with other containers attached to same pool. Pass null to use private cache of adapter.
+		 * @param viewType type under which views of this adapter are kept in pool. All views of this type in pool must be instances of V.
+		 */
+		public void setRecycledViewPool(RecycledViewPool pool, int viewType){
+			mRecycledViewPool = pool;
+			mRecycledViewType = viewType;
+		}
+		
+		@SuppressWarnings("unchecked")
+		private V getCachedView(){
+			if(mRecycledViewPool != null) return (V) mRecycledViewPool.get(mRecycledViewType);
+			else return mViewCache.getCachedView();
 		}
 		
 		
@@ -952,6 +1074,7 @@ public class BasicContentBand extends ViewGroup {
 		
 		private void checkAndFixLayoutParams(View v, Tile t){
 			if(!(v.getLayoutParams() instanceof LayoutParams)) v.setLayoutParams(getLayoutParamsForTile(t));
+			((LayoutParams) v.getLayoutParams()).tile = t;
 		}
 		
 		@Override
@@ -962,7 +1085,7 @@ public class BasicContentBand extends ViewGroup {
 			final View[] arr = new View[list.size()];
 			for(int i=0; i < arr.length; i++){
 				Tile t = list.get(i);
-				arr[i] = getViewForTile(t, mViewCache.getCachedView());
+				arr[i] = getViewForTile(t, getCachedView());
 				checkAndFixLayoutParams(arr[i], t);
 			}
 			
@@ -977,7 +1100,7 @@ public class BasicContentBand extends ViewGroup {
 			final View[] arr = new View[list.size()];
 			for(int i=0; i < arr.length; i++){
 				Tile t = list.get(i);
-				arr[i] = getViewForTile(t, mViewCache.getCachedView());
+				arr[i] = getViewForTile(t, getCachedView());
 				checkAndFixLayoutParams(arr[i], t);
 			}
 			
@@ -993,12 +1116,36 @@ public class BasicContentBand extends ViewGroup {
 			final View[] arr = new View[union.size()];
 			for(int i=0; i < arr.length; i++){
 				Tile t = union.get(i);
-				arr[i] = getViewForTile(t, mViewCache.getCachedView());
+				arr[i] = getViewForTile(t, getCachedView());
 				checkAndFixLayoutParams(arr[i], t);
 			}
 			
 			return arr;
 		}
+		
+		@Override
+		public void getViewsInArea(Rect area, Rect filled, List<View> out) {
+			mSpatialIndex.startQuery();
+			mSpatialIndex.addAreaAround(area.left, area.top, area.right, area.bottom, filled.left, filled.top, filled.right, filled.bottom);
+			
+			//tiles reaching from strips to filled area are displayed already
+			final int c = mSpatialIndex.getResultCount();
+			Tile t;
+			V v;
+			for(int i=0; i < c; i++){
+				t = mTilesBySlot.get(mSpatialIndex.getResult(i));
+				if(intersects(t, filled)) continue;
+				
+				v = getViewForTile(t, getCachedView());
+				checkAndFixLayoutParams(v, t);
+				out.add(v);
+			}
+		}
+		
+		private boolean intersects(Tile t, Rect r){
+			if(r.isEmpty()) return false;
+			return t.getX() < r.right && t.getXRight() > r.left && t.getY() < r.bottom && t.getYBottom() > r.top;
+		}
 						
 		public void setTiles(ArrayList<Tile> tiles) {
 			initWithNewData(tiles);					
@@ -1009,6 +1156,135 @@ public class BasicContentBand extends ViewGroup {
 			mChangeListener = listener;
 		}
 		
+		/**
+		 * Adds tile without rebuilding of indexes. Band attaches it, if it is on screen.
+		 * Place in sorted lists is found by binary search, but inserting shifts following tiles, so cost is O(n) array copy.
+		 * Use setTiles to change many tiles at once.
+		 */
+		public void insertTile(Tile t){
+			addToIndexes(t);
+			if(mChangeListener != null) mChangeListener.onTileChanged(this, t);
+		}
+		
+		/**
+		 * Removes tile without rebuilding of indexes. Band detaches its views. Cost is O(n) array copy like in insertTile.
+		 */
+		public void removeTile(Tile t){
+			if(!removeFromIndexes(t)) return;
+			if(mChangeListener != null) mChangeListener.onTileRemoved(this, t);
+		}
+		
+		/**
+		 * Rebinds views of tile, whose data changed. Use moveTile when position or size of tile changes, z can be changed directly.
+		 * Band finds views of tile by identity of tile object, ids don't need to be unique.
+		 */
+		public void updateTile(Tile t){
+			if(mChangeListener != null) mChangeListener.onTileChanged(this, t);
+		}
+		
+		/**
+		 * Changes position and size of tile in adapter. Don't use setters of tile for this, tiles are indexed by their position.
+		 * Tile is removed and inserted again, so cost is O(n) array copy like in insertTile.
+		 */
+		public void moveTile(Tile t, int x, int y, int width, int height){
+			Validate.isTrue(removeFromIndexes(t), "Tile is not in adapter");
+			t.setX(x);
+			t.setY(y);
+			t.setWidth(width);
+			t.setHeight(height);
+			addToIndexes(t);
+			if(mChangeListener != null) mChangeListener.onTileChanged(this, t);
+		}
+		
+		/**
+		 * Binary search finds place in sorted lists, tiles with same edge keep order in which they were added
+		 */
+		private void addToIndexes(Tile t){
+			if(mTilesByBegining == null) initWithNewData(new ArrayList<Tile>());
+			
+			mTilesByBegining.add(upperBound(mTilesByBegining, t.getX(), false), t);
+			mTilesByEnd.add(upperBound(mTilesByEnd, t.getXRight(), true), t);
+			
+			final int slot;
+			if(mFreeSlotCount > 0){
+				slot = mFreeSlots[--mFreeSlotCount];
+				mTilesBySlot.set(slot, t);
+			}
+			else{
+				slot = mTilesBySlot.size();
+				mTilesBySlot.add(t);
+			}
+			t.spatialSlot = slot;
+			mSpatialIndex.insert(slot, t.getX(), t.getY(), t.getXRight(), t.getYBottom());
+		}
+		
+		/**
+		 * @return false if tile is not in adapter
+		 */
+		private boolean removeFromIndexes(Tile t){
+			if(mTilesByBegining == null) return false;
+			final int i = indexOf(mTilesByBegining, t, false);
+			if(i < 0) return false;
+			
+			mTilesByBegining.remove(i);
+			mTilesByEnd.remove(indexOf(mTilesByEnd, t, true));
+			
+			mSpatialIndex.remove(t.spatialSlot);
+			mTilesBySlot.set(t.spatialSlot, null);
+			if(mFreeSlotCount == mFreeSlots.length) mFreeSlots = Arrays.copyOf(mFreeSlots, mFreeSlotCount * 2);
+			mFreeSlots[mFreeSlotCount++] = t.spatialSlot;
+			t.spatialSlot = TileBase.NO_SLOT;
+			return true;
+		}
+		
+		private static int getEdge(TileBase t, boolean right){
+			return right ? t.getXRight() : t.getX();
+		}
+		
+		/**
+		 * @return index of first tile with edge greater than value
+		 */
+		private int upperBound(ArrayList<Tile> list, int value, boolean right){
+			int lo = 0;
+			int hi = list.size();
+			while(lo < hi){
+				final int mid = (lo + hi) >>> 1;
+				if(getEdge(list.get(mid), right) <= value) lo = mid + 1;
+				else hi = mid;
+			}
+			return lo;
+		}
+		
+		/**
+		 * Finds first tile with same edge and goes through tiles with that edge to find this one
+		 */
+		private int indexOf(ArrayList<Tile> list, Tile t, boolean right){
+			final int edge = getEdge(t, right);
+			int lo = 0;
+			int hi = list.size();
+			while(lo < hi){
+				final int mid = (lo + hi) >>> 1;
+				if(getEdge(list.get(mid), right) < edge) lo = mid + 1;
+				else hi = mid;
+			}
+			
+			for(int i = lo; i < list.size() && getEdge(list.get(i), right) == edge; i++){
+				if(list.get(i) == t) return i;
+			}
+			return -1;
+		}
+		
+		/**
+		 * Creates view for tile changed in adapter
+		 */
+		@SuppressWarnings("unchecked")
+		View obtainView(TileBase tile){
+			final Tile t = (Tile) tile;
+			final V v = getViewForTile(t, getCachedView());
+			checkAndFixLayoutParams(v, t);
+			return v;
+		}
+		
 		@SuppressWarnings("unchecked")
 		protected void initWithNewData(ArrayList<Tile> tiles){		
 			mTilesByBegining = (ArrayList<Tile>) tiles.clone();			
@@ -1017,6 +1293,38 @@ public class BasicContentBand extends ViewGroup {
 			
 			mTilesByEnd = (ArrayList<Tile>) mTilesByBegining.clone();
 			Collections.sort(mTilesByEnd, endComparator);		
+			
+			buildSpatialIndex();
+		}
+		
+		/**
+		 * Grid cell has size of average tile, so typical query visits few cells and few tiles in each of them
+		 */
+		private void buildSpatialIndex(){
+			final int c = mTilesByBegining.size();
+			mTilesBySlot.clear();
+			mTilesBySlot.addAll(mTilesByBegining);
+			mFreeSlotCount = 0;
+			final int[] left = new int[c];
+			final int[] top = new int[c];
+			final int[] right = new int[c];
+			final int[] bottom = new int[c];
+			long widthSum = 0, heightSum = 0;
+			Tile t;
+			for(int i=0; i < c; i++){
+				t = mTilesByBegining.get(i);
+				t.spatialSlot = i;
+				left[i] = t.getX();
+				top[i] = t.getY();
+				right[i] = t.getXRight();
+				bottom[i] = t.getYBottom();
+				widthSum += t.getWidth();
+				heightSum += t.getHeight();
+			}
+			
+			final int cellWidth = c > 0 ? (int) (widthSum / c) : 1;
+			final int cellHeight = c > 0 ? (int) (heightSum / c) : 1;
+			mSpatialIndex.build(left, top, right, bottom, c, cellWidth, cellHeight);
 		}
 		
 		/**
@@ -1136,32 +1444,35 @@ public class BasicContentBand extends ViewGroup {
 		
 		interface IDataListener {
 			void onDataSetChanged();
+			
+			/**
+			 * Tile was inserted, moved or its data changed
+			 */
+			void onTileChanged(AbstractAdapter<?, ?> adapter, TileBase tile);
+			
+			void onTileRemoved(AbstractAdapter<?, ?> adapter, TileBase tile);
 		}
 				
 	}
 	
-	private static class ViewCache<T extends View> {
-		final LinkedList<WeakReference<T>> mCachedItemViews = new LinkedList<WeakReference<T>>();
+	/**
+	 * Views are held strongly in array list, so caching and reusing views while scrolling allocates nothing.
+	 * Cache holds at most as many views as were on screen at once.
+	 */
+	static class ViewCache<T extends View> {
+		final ArrayList<T> mCachedItemViews = new ArrayList<T>();
 		
 		/**
-		 * Check if list of weak references has any view still in memory to offer for recycling
-		 * @return cached view
+		 * @return cached view or null
 		 */
 		T getCachedView(){
-			if (mCachedItemViews.size() != 0) {
-				T v;
-				do{
-		            v = mCachedItemViews.removeFirst().get();
-				}
-	            while(v == null && mCachedItemViews.size() != 0);
-				return v;
-	        }
-	        return null;
+			final int c = mCachedItemViews.size();
+			if(c == 0) return null;
+			return mCachedItemViews.remove(c - 1);
 		}
 		
 		void cacheView(T v){
-			WeakReference<T> ref = new WeakReference<T>(v);
-            mCachedItemViews.addLast(ref);
+            mCachedItemViews.add(v);
 		}
 	}
 
@@ -1,6 +1,10 @@
 package com.martinappl.components.ui.containers.contentbands;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import android.content.Context;
+import android.graphics.Rect;
 import android.util.AttributeSet;
 import android.view.View;
 
@@ -12,6 +16,13 @@ import com.martinappl.components.general.ToolBox;
  * TODO last poster is disappearing prematurely and reappearing late. Time to time container isn't drawn after Activity initialization.
  */
 public class EndlessContentBand extends BasicContentBand {
+	/** When scroll offset gets over this value, coordinates are moved back near zero by whole periods of content */
+	private static final int SCROLL_REBASE_THRESHOLD = 1 << 20;
+	
+	private final Rect mTempArea = new Rect();
+	private final Rect mTempFilledArea = new Rect();
+	private final Rect mTempRefreshedArea = new Rect();
+	private final ArrayList<View> mChangedViews = new ArrayList<View>();
 
 	public EndlessContentBand(Context context, AttributeSet attrs, int defStyle) {
 		super(context, attrs, defStyle);
@@ -27,135 +38,112 @@ public class EndlessContentBand extends BasicContentBand {
 	
 	
 	
+	@Override
+	public void computeScroll() {
+		rebaseScrollOriginIfNeeded();
+		super.computeScroll();
+	}
+	
 	/**
-	 * Checks and refills empty area on the left edge of screen
+	 * Scroll offset grows without limits while user scrolls in one direction. Shift children and scroll position back by whole
+	 * periods of content, so nothing moves on screen. Waits while fling is running.
 	 */
-	@Override
-	protected void refillLeftSide(){
-		final int leftScreenEdge = getScrollX();
-		final int dspNextViewsRight = mCurrentlyLayoutedViewsLeftEdgeDsp;
+	private void rebaseScrollOriginIfNeeded(){
+		if(mAdapter == null || Math.abs(getScrollX()) <= SCROLL_REBASE_THRESHOLD || !mScroller.isFinished()) return;
+		final int end = mAdapter.getEnd();
+		if(end == 0) return;
 		
-		int dspLeftScreenEdge = pxToDsp(leftScreenEdge);
-		if(dspLeftScreenEdge <= 0) dspLeftScreenEdge--; //when values are <0 they get floored to value which is larger
+		final int dspShift = (getScrollX() / dspToPx(end)) * end;
+		final int pxShift = dspToPx(dspShift);
+		if(pxShift == 0) return;
 		
-		int end = mAdapter.getEnd();
+		View v;
+		for(int i=0; i < getChildCount(); i++){
+			v = getChildAt(i);
+			((LayoutParams) v.getLayoutParams()).dspLeft -= dspShift;
+			v.offsetLeftAndRight(-pxShift);
+		}
+		mFilledAreaDsp.offset(-dspShift, 0);
+		mVisibleTiles.offsetHorizontally(-dspShift);
 		
-		if(dspLeftScreenEdge >= dspNextViewsRight || end == 0) return;
+		scrollTo(getScrollX() - pxShift, getScrollY());
+	}
+	
+	/**
+	 * Content repeats every getEnd() DSP on X axis. Area is split to periods of content, every part is queried in coordinates
+	 * of adapter and found views are moved back to their period.
+	 */
+	@Override
+	protected void getViewsInArea(Rect area, Rect filled, List<View> out){
+		final int end = mAdapter.getEnd();
+		if(end == 0 || area.isEmpty()) return;
 		
-		int dspModuloLeftScreenEdge = dspLeftScreenEdge % end;
-		int dspModuloNextViewsRight = dspNextViewsRight % end;
-		int dspOffsetLeftScreenEdge = dspLeftScreenEdge / end;
-		int dspOffsetNextViewsRight = dspNextViewsRight / end;
+		final int firstPeriod = ToolBox.floorDiv(area.left, end);
+		final int lastPeriod = ToolBox.floorDiv(area.right - 1, end);
 		
-		if(dspModuloLeftScreenEdge < 0) {
-			dspModuloLeftScreenEdge += end;
-			dspOffsetLeftScreenEdge -= 1;
-		}
-		if(dspModuloNextViewsRight < 0){
-			dspModuloNextViewsRight += end;
-			dspOffsetNextViewsRight -= 1;
-		}
-				
-		View[] list;	
-		if(dspModuloLeftScreenEdge > dspModuloNextViewsRight){
-			View[] list1,list2;
-			list1 = mAdapter.getViewsByRightSideRange(dspModuloLeftScreenEdge, end);
-			list2 = mAdapter.getViewsByRightSideRange(0, dspModuloNextViewsRight);
-			translateLayoutParams(list1, dspOffsetLeftScreenEdge);
-			translateLayoutParams(list2, dspOffsetNextViewsRight);			
+		int periodStart;
+		for(int period = firstPeriod; period <= lastPeriod; period++){
+			mTempArea.set(area);
+			mTempArea.offset(-period * end, 0);
+			mTempFilledArea.set(filled);
+			mTempFilledArea.offset(-period * end, 0);
 			
-			list = ToolBox.concatenateArray(list1,list2);			
-		}
-		else{
-			list = mAdapter.getViewsByRightSideRange(dspModuloLeftScreenEdge, dspModuloNextViewsRight);
-			translateLayoutParams(list, dspOffsetLeftScreenEdge);
-		}
-				
-		int dspMostLeft = dspNextViewsRight;
-		LayoutParams lp;
-		for(int i=0; i < list.length; i++){
-			lp = (LayoutParams) list[i].getLayoutParams();
-			if(lp.dspLeft < dspMostLeft) dspMostLeft = lp.dspLeft;
-			addViewInLayout(list[i], -1, list[i].getLayoutParams(), true);
-		}
-		
-		if(list.length > 0){
-			layoutNewChildren(list);
+			periodStart = out.size();
+			mAdapter.getViewsInArea(mTempArea, mTempFilledArea, out);
+			translateLayoutParams(out, periodStart, period);
 		}
-
-		mCurrentlyLayoutedViewsLeftEdgeDsp = dspMostLeft;
 	}
 	
-	private void translateLayoutParams(View[] list,int offset){
-		if(offset == 0 || list.length == 0) return;
-		
+	/**
+	 * Changed tile is attached in every period of content, in which it intersects filled area
+	 */
+	@Override
+	protected void attachChangedTile(AbstractAdapter<?, ?> adapter, TileBase t){
 		final int end = mAdapter.getEnd();
-		LayoutParams lp;
+		if(end == 0 || mFilledAreaDsp.isEmpty() || t.getY() >= mFilledAreaDsp.bottom || t.getYBottom() <= mFilledAreaDsp.top) return;
 		
-		for(int i=0; i<list.length; i++){
-			lp = (LayoutParams) list[i].getLayoutParams();
-			lp.dspLeft += offset * end;
-		}		
+		final int firstPeriod = ToolBox.floorDiv(mFilledAreaDsp.left - t.getXRight(), end) + 1;
+		final int lastPeriod = ToolBox.floorDiv(mFilledAreaDsp.right - 1 - t.getX(), end);
+		
+		mChangedViews.clear();
+		for(int period = firstPeriod; period <= lastPeriod; period++){
+			mChangedViews.add(adapter.obtainView(t));
+			translateLayoutParams(mChangedViews, mChangedViews.size() - 1, period);
+		}
+		attachViews(mChangedViews);
+		mChangedViews.clear();
 	}
 	
 	/**
-	 * Checks and refills empty area on the right
+	 * Area in coordinates of adapter is refreshed in every period of content, which intersects filled area
 	 */
 	@Override
-	protected void refillRightSide(){		
-		final int rightScreenEdge = getScrollX() + getWidth();
-		final int dspNextAddedViewsLeft = mCurrentlyLayoutedViewsRightEdgeDsp;
+	protected void refreshArea(Rect area){
 		final int end = mAdapter.getEnd();
+		if(end == 0 || mFilledAreaDsp.isEmpty() || area.isEmpty()) return;
 		
-		int dspRightScreenEdge = pxToDsp(rightScreenEdge);
-		if(dspRightScreenEdge >= 0) dspRightScreenEdge++; //to avoid problem with rounding of values
-		
-		if(dspNextAddedViewsLeft >= dspRightScreenEdge || end == 0) return;
-		
-		int dspModuloRightScreenEdge = dspRightScreenEdge % end;
-		int dspModuloNextAddedViewsLeft = dspNextAddedViewsLeft % end;
-		int dspOffsetRightScreenEdge = dspRightScreenEdge / end;
-		int dspOffsetNextAddedViewsLeft = dspNextAddedViewsLeft / end;
+		final int firstPeriod = ToolBox.floorDiv(mFilledAreaDsp.left - area.right, end) + 1;
+		final int lastPeriod = ToolBox.floorDiv(mFilledAreaDsp.right - 1 - area.left, end);
 		
-		if(dspModuloRightScreenEdge < 0) {
-			dspModuloRightScreenEdge += end;
-			dspOffsetRightScreenEdge -= 1;
-		}
-		if(dspModuloNextAddedViewsLeft < 0) {
-			dspModuloNextAddedViewsLeft += end;
-			dspOffsetNextAddedViewsLeft -= 1;
+		for(int period = firstPeriod; period <= lastPeriod; period++){
+			mTempRefreshedArea.set(area);
+			mTempRefreshedArea.offset(period * end, 0);
+			super.refreshArea(mTempRefreshedArea);
 		}
+	}
+	
+	private void translateLayoutParams(List<View> list, int from, int offset){
+		if(offset == 0 || list.size() == from) return;
 		
-		View[] list;	
-		if(dspModuloNextAddedViewsLeft > dspModuloRightScreenEdge){
-			View[] list1,list2;
-			list1 = mAdapter.getViewsByLeftSideRange(dspModuloNextAddedViewsLeft, end);
-			list2 = mAdapter.getViewsByLeftSideRange(0, dspModuloRightScreenEdge);
-			translateLayoutParams(list1, dspOffsetNextAddedViewsLeft);
-			translateLayoutParams(list2, dspOffsetRightScreenEdge);
-			
-			list = ToolBox.concatenateArray(list1,list2);
-		}
-		else{
-			list = mAdapter.getViewsByLeftSideRange(dspModuloNextAddedViewsLeft, dspModuloRightScreenEdge);
-			translateLayoutParams(list, dspOffsetNextAddedViewsLeft);
-		}
-				
-		int dspMostRight = 0;
+		final int end = mAdapter.getEnd();
 		LayoutParams lp;
-		for(int i=0; i < list.length; i++){
-			lp = (LayoutParams) list[i].getLayoutParams();
-			if(lp.getDspRight() > dspMostRight) dspMostRight = lp.getDspRight();
-			addViewInLayout(list[i], -1, list[i].getLayoutParams(), true);
-		}
 		
-		if(list.length > 0){
-			layoutNewChildren(list);
-		}
-		
-		mCurrentlyLayoutedViewsRightEdgeDsp = dspMostRight;
+		for(int i=from; i<list.size(); i++){
+			lp = (LayoutParams) list.get(i).getLayoutParams();
+			lp.dspLeft += offset * end;
+		}		
 	}
-		
+	
 	public void fling(int velocityX, int velocityY){		
 		mTouchState = TOUCH_STATE_FLING;
 		final int x = getScrollX();
@@ -0,0 +1,96 @@
+package com.martinappl.components.ui.containers.contentbands;
+
+import com.martinappl.components.general.Validate;
+
+/**
+ * @author Martin Appl
+ *
+ * PagedTileSource generating program guide like layout in memory, for demos and for testing of paging without real data.
+ * Rows are split to units, every unit starts new tile with some probability and at least every maxUnits units.
+ * Tile boundaries are computed from hash of row and unit, so any range is generated alone, in time proportional to its size,
+ * and tiles reaching over more ranges get same id in each of them.
+ */
+public class GeneratedTileSource implements PagedTileSource {
+	private final int mRows;
+	private final int mUnitsPerRow;
+	private final int mUnitWidth;
+	private final int mRowHeight;
+	private final int mMaxUnits;
+	private final int mSeed;
+	private volatile long mDelayMillis;
+
+	/**
+	 * @param rows number of rows
+	 * @param unitsPerRow length of row in units
+	 * @param unitWidth width of unit in DSP
+	 * @param rowHeight height of row in DSP
+	 * @param maxUnits maximal width of tile in units
+	 * @param seed changes generated layout
+	 */
+	public GeneratedTileSource(int rows, int unitsPerRow, int unitWidth, int rowHeight, int maxUnits, int seed){
+		Validate.isTrue(rows > 0 && unitsPerRow > 0 && unitWidth > 0 && rowHeight > 0, "Dimensions of layout must be greater than zero");
+		Validate.isTrue(maxUnits > 0, "Maximal width of tile must be greater than zero: ", maxUnits);
+		mRows = rows;
+		mUnitsPerRow = unitsPerRow;
+		mUnitWidth = unitWidth;
+		mRowHeight = rowHeight;
+		mMaxUnits = maxUnits;
+		mSeed = seed;
+	}
+
+	/**
+	 * Simulates slow storage or network, every load waits for given time
+	 */
+	public void setDelay(long millis){
+		mDelayMillis = millis;
+	}
+
+	@Override
+	public int getEnd(){
+		return mUnitsPerRow * mUnitWidth;
+	}
+
+	@Override
+	public int getBottom(){
+		return mRows * mRowHeight;
+	}
+
+	@Override
+	public void loadTiles(int from, int to, TileStore out){
+		if(mDelayMillis > 0){
+			try {
+				Thread.sleep(mDelayMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Loading of tiles was interrupted", e);
+			}
+		}
+
+		final int firstUnit = Math.max(0, from / mUnitWidth);
+		final int endUnit = Math.min(mUnitsPerRow, (to + mUnitWidth - 1) / mUnitWidth);
+		if(firstUnit >= endUnit) return;
+
+		for(int row=0; row < mRows; row++){
+			int start = firstUnit;
+			while(!isTileStart(row, start)) start--;
+
+			while(start < endUnit){
+				int next = start + 1;
+				while(next < mUnitsPerRow && !isTileStart(row, next)) next++;
+
+				out.add(row * mUnitsPerRow + start, start * mUnitWidth, row * mRowHeight, (next - start) * mUnitWidth, mRowHeight, 0);
+				start = next;
+			}
+		}
+	}
+
+	private boolean isTileStart(int row, int unit){
+		if(unit % mMaxUnits == 0) return true;
+
+		int h = mSeed + row * 0x9E3779B1 + unit * 0x85EBCA6B;
+		h ^= h >>> 16;
+		h *= 0x7FEB352D;
+		h ^= h >>> 15;
+		return (h & 3) == 0;
+	}
+}
@@ -0,0 +1,172 @@
+package com.martinappl.components.ui.containers.contentbands;
+
+import java.util.List;
+
+import android.graphics.Rect;
+import android.view.View;
+
+import com.martinappl.components.ui.containers.RecycledViewPool;
+import com.martinappl.components.ui.containers.contentbands.BasicContentBand.LayoutParams;
+
+/**
+ * @author Martin Appl
+ *
+ * Content band adapter reading tiles straight from MappedTileLayout. Range queries have same semantics as queries
+ * of BasicContentBand.AbstractAdapter, but run by binary search and grid of mapped file, so band starts without parsing layout
+ * and without object per tile. Implement getViewForTile, use MappedTileLayout.readTile there if binding needs TileBase.
+ */
+public abstract class MappedTileAdapter<V extends View> implements BasicContentBand.Adapter {
+	private final BasicContentBand.ViewCache<V> mViewCache = new BasicContentBand.ViewCache<V>();
+	private RecycledViewPool mRecycledViewPool;
+	private int mRecycledViewType;
+
+	protected MappedTileLayout mLayout;
+
+	public MappedTileAdapter(MappedTileLayout layout){
+		mLayout = layout;
+	}
+
+	public MappedTileLayout getLayout(){
+		return mLayout;
+	}
+
+	/**
+	 * Use getLayoutParamsForTile to get correct layout params for tile and set them with setLayoutParams before returning View
+	 * @param layout layout with tile data
+	 * @param tile index of tile in layout
+	 * @param recycled View no more used and returned for recycling
+	 */
+	public abstract V getViewForTile(MappedTileLayout layout, int tile, V recycled);
+
+	/**
+	 * @param tile index of tile in layout
+	 * @return ContendBand layout params
+	 */
+	public LayoutParams getLayoutParamsForTile(int tile){
+		LayoutParams lp = new LayoutParams();
+		lp.tileId = mLayout.getId(tile);
+		lp.dspLeft = mLayout.getX(tile);
+		lp.dspTop = mLayout.getY(tile);
+		lp.dspWidth = mLayout.getWidth(tile);
+		lp.dspHeight = mLayout.getHeight(tile);
+		lp.z = mLayout.getZ(tile);
+		return lp;
+	}
+
+	@Override
+	public int getCount(){
+		return mLayout.size();
+	}
+
+	@Override
+	public int getEnd(){
+		return mLayout.getEnd();
+	}
+
+	@Override
+	public int getBottom(){
+		return mLayout.getBottom();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void offerViewForRecycling(View view){
+		if(mRecycledViewPool != null) mRecycledViewPool.put(mRecycledViewType, view);
+		else mViewCache.cacheView((V) view);
+	}
+
+	/**
+	 * Shares views for reuse with other containers attached to same pool. Pass null to use private cache of adapter.
+	 * @param viewType type under which views of this adapter are kept in pool. All views of this type in pool must be instances of V.
+	 */
+	public void setRecycledViewPool(RecycledViewPool pool, int viewType){
+		mRecycledViewPool = pool;
+		mRecycledViewType = viewType;
+	}
+
+	@SuppressWarnings("unchecked")
+	private V getCachedView(){
+		if(mRecycledViewPool != null) return (V) mRecycledViewPool.get(mRecycledViewType);
+		else return mViewCache.getCachedView();
+	}
+
+	private V getView(int tile){
+		final V v = getViewForTile(mLayout, tile, getCachedView());
+		if(!(v.getLayoutParams() instanceof LayoutParams)) v.setLayoutParams(getLayoutParamsForTile(tile));
+		return v;
+	}
+
+	@Override
+	public View[] getViewsByLeftSideRange(int from, int to){
+		final int first = mLayout.lowerBoundLeft(from);
+		final int last = mLayout.lowerBoundLeft(to);
+		if(from >= to || first >= last) return new View[0];
+
+		final View[] arr = new View[last - first];
+		for(int tile = first; tile < last; tile++){
+			arr[tile - first] = getView(tile);
+		}
+		return arr;
+	}
+
+	@Override
+	public View[] getViewsByRightSideRange(int from, int to){
+		final int first = mLayout.lowerBoundRight(from + 1); //from is exclusive
+		final int last = mLayout.lowerBoundRight(to + 1);
+		if(from >= to || first >= last) return new View[0];
+
+		final View[] arr = new View[last - first];
+		for(int rank = first; rank < last; rank++){
+			arr[rank - first] = getView(mLayout.getIndexByRight(rank));
+		}
+		return arr;
+	}
+
+	/**
+	 * Tiles with right edge in range are added only if their left edge is before range, others were found by left edge
+	 */
+	@Override
+	public View[] getViewsVisibleInRange(int from, int to){
+		final int firstLeft = mLayout.lowerBoundLeft(from);
+		final int lastLeft = mLayout.lowerBoundLeft(to);
+		final int firstRight = mLayout.lowerBoundRight(from + 1);
+		final int lastRight = mLayout.lowerBoundRight(to + 1);
+
+		int count = Math.max(0, lastLeft - firstLeft);
+		for(int rank = firstRight; rank < lastRight; rank++){
+			if(mLayout.getX(mLayout.getIndexByRight(rank)) < from) count++;
+		}
+
+		final View[] arr = new View[count];
+		int j = 0;
+		for(int tile = firstLeft; tile < lastLeft; tile++){
+			arr[j++] = getView(tile);
+		}
+		int tile;
+		for(int rank = firstRight; rank < lastRight; rank++){
+			tile = mLayout.getIndexByRight(rank);
+			if(mLayout.getX(tile) < from) arr[j++] = getView(tile);
+		}
+		return arr;
+	}
+
+	/**
+	 * Only grid cells of layout covered by parts of area outside of filled area are visited
+	 */
+	@Override
+	public void getViewsInArea(Rect area, Rect filled, List<View> out){
+		if(area.isEmpty()) return;
+
+		mLayout.queryAreaAround(area, filled);
+		final int c = mLayout.getAreaResultCount();
+		int tile;
+		for(int i=0; i < c; i++){
+			tile = mLayout.getAreaResult(i);
+			//tiles reaching from strips to filled area are displayed already
+			if(!filled.isEmpty() && mLayout.getX(tile) < filled.right && mLayout.getXRight(tile) > filled.left
+					&& mLayout.getY(tile) < filled.bottom && mLayout.getYBottom(tile) > filled.top) continue;
+
+			out.add(getView(tile));
+		}
+	}
+}
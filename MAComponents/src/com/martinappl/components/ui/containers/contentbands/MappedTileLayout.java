@@ -0,0 +1,337 @@
+package com.martinappl.components.ui.containers.contentbands;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import android.graphics.Rect;
+
+/**
+ * @author Martin Appl
+ *
+ * Tile layout in compact binary format, read straight from memory mapped file. Opening costs only check of header,
+ * tiles are not parsed and no objects are created for them, pages of file are loaded by system when queries touch them.
+ * Files are written by TileLayoutWriter.
+ *
+ * Format, all values are 32 bit little endian integers:
+ * <pre>
+ * 	header:  magic, version, tile count, end, bottom, max tile width, grid left, grid top, cell width, cell height, columns, rows
+ * 	records: id, x, y, width, height, z for every tile, sorted by x
+ * 	by right: indexes of records sorted by right edge
+ * 	cell starts: offsets of cells in cell items, columns * rows + 1 values, cells are stored by rows
+ * 	cell items: indexes of records overlapping cell, for every cell
+ * </pre>
+ * Tile is identified by index of its record, which is also its rank in order by left edges. Area queries visit only grid cells
+ * covered by area, results are kept in layout, so queries must be done on one thread. DSP = device specific pixel
+ */
+public class MappedTileLayout {
+	static final int MAGIC = 0x4C54414D; //"MATL"
+	static final int VERSION = 2;
+	static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+	static final int HEADER_INTS = 12;
+	static final int RECORD_INTS = 6;
+
+	private static final int ID = 0;
+	private static final int X = 1;
+	private static final int Y = 2;
+	private static final int WIDTH = 3;
+	private static final int HEIGHT = 4;
+	private static final int Z = 5;
+
+	private final IntBuffer mData;
+	private final int mSize;
+	private final int mEnd;
+	private final int mBottom;
+	private final int mMaxWidth;
+	private final int mByRightOffset;
+
+	private final int mGridLeft;
+	private final int mGridTop;
+	private final int mCellWidth;
+	private final int mCellHeight;
+	private final int mColumns;
+	private final int mRows;
+	private final int mCellStartOffset;
+	private final int mCellItemsOffset;
+
+	/** Areas of running query, tile intersecting earlier area is not reported again */
+	private int[] mQueryAreas = new int[16];
+	private int mQueryAreaCount;
+	private int[] mResults = new int[16];
+	private int mResultCount;
+
+	/**
+	 * Maps layout file to memory. Mapping stays valid after file is closed.
+	 */
+	public static MappedTileLayout map(File file) throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try{
+			final FileChannel channel = raf.getChannel();
+			return new MappedTileLayout(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+		finally{
+			raf.close();
+		}
+	}
+
+	/**
+	 * Reads layout from buffer with content of layout file. Use it for layouts mapped from part of file,
+	 * for example from uncompressed asset with its AssetFileDescriptor offset and length.
+	 * @throws IOException if buffer doesn't contain valid layout
+	 */
+	public MappedTileLayout(ByteBuffer buffer) throws IOException {
+		mData = buffer.duplicate().order(BYTE_ORDER).asIntBuffer();
+		if(mData.limit() < HEADER_INTS || mData.get(0) != MAGIC) throw new IOException("Not a tile layout file");
+		if(mData.get(1) != VERSION) throw new IOException("Unsupported tile layout version: " + mData.get(1));
+
+		mSize = mData.get(2);
+		mEnd = mData.get(3);
+		mBottom = mData.get(4);
+		mMaxWidth = mData.get(5);
+		mGridLeft = mData.get(6);
+		mGridTop = mData.get(7);
+		mCellWidth = mData.get(8);
+		mCellHeight = mData.get(9);
+		mColumns = mData.get(10);
+		mRows = mData.get(11);
+		if(mSize < 0 || mColumns < 0 || mRows < 0 || mCellWidth <= 0 || mCellHeight <= 0) throw new IOException("Corrupted tile layout header");
+
+		final long byRightOffset = HEADER_INTS + (long) mSize * RECORD_INTS;
+		final long cellStartOffset = byRightOffset + mSize;
+		final long cellItemsOffset = cellStartOffset + (long) mColumns * mRows + 1;
+		if(cellItemsOffset > mData.limit()) throw new IOException("Tile layout file is truncated, tiles: " + mSize);
+		mByRightOffset = (int) byRightOffset;
+		mCellStartOffset = (int) cellStartOffset;
+		mCellItemsOffset = (int) cellItemsOffset;
+		if((long) mCellItemsOffset + mData.get(mCellItemsOffset - 1) > mData.limit()) throw new IOException("Tile layout file is truncated, tiles: " + mSize);
+	}
+
+	/**
+	 * @return number of tiles
+	 */
+	public int size(){
+		return mSize;
+	}
+
+	/**
+	 * @return right edge of last tile in DSP
+	 */
+	public int getEnd(){
+		return mEnd;
+	}
+
+	/**
+	 * @return bottom edge of lowest tile in DSP
+	 */
+	public int getBottom(){
+		return mBottom;
+	}
+
+	/**
+	 * @return width of widest tile, tiles reaching to x are found among tiles starting at most this far before it
+	 */
+	public int getMaxWidth(){
+		return mMaxWidth;
+	}
+
+	private int get(int tile, int field){
+		return mData.get(HEADER_INTS + tile * RECORD_INTS + field);
+	}
+
+	public int getId(int tile){
+		return get(tile, ID);
+	}
+
+	public int getX(int tile){
+		return get(tile, X);
+	}
+
+	public int getXRight(int tile){
+		return get(tile, X) + get(tile, WIDTH);
+	}
+
+	public int getY(int tile){
+		return get(tile, Y);
+	}
+
+	public int getYBottom(int tile){
+		return get(tile, Y) + get(tile, HEIGHT);
+	}
+
+	public int getWidth(int tile){
+		return get(tile, WIDTH);
+	}
+
+	public int getHeight(int tile){
+		return get(tile, HEIGHT);
+	}
+
+	public int getZ(int tile){
+		return get(tile, Z);
+	}
+
+	/**
+	 * Copies data of tile to object, use it when tile is bound to view
+	 */
+	public void readTile(int tile, TileBase out){
+		out.setId(getId(tile));
+		out.setX(getX(tile));
+		out.setY(getY(tile));
+		out.setWidth(getWidth(tile));
+		out.setHeight(getHeight(tile));
+		out.setZ(getZ(tile));
+	}
+
+	/**
+	 * @return index of tile, which is on rank place in order by right edges
+	 */
+	public int getIndexByRight(int rank){
+		return mData.get(mByRightOffset + rank);
+	}
+
+	/**
+	 * @return index of first tile with left edge equal to value or greater, or size if there is none
+	 */
+	public int lowerBoundLeft(int value){
+		int lo = 0;
+		int hi = mSize;
+		while(lo < hi){
+			final int mid = (lo + hi) >>> 1;
+			if(getX(mid) < value) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Finds tiles intersecting area. Results are read by getAreaResultCount and getAreaResult and are valid until next query.
+	 * @param left inclusive
+	 * @param right exclusive
+	 */
+	public void queryArea(int left, int top, int right, int bottom){
+		startAreaQuery();
+		addQueryArea(left, top, right, bottom);
+	}
+
+	/**
+	 * Finds tiles intersecting parts of area outside of excluded rectangle, tiles reaching into excluded rectangle are reported too.
+	 * Grid cells covered by excluded rectangle are not visited.
+	 */
+	public void queryAreaAround(Rect area, Rect excluded){
+		startAreaQuery();
+		if(excluded.isEmpty() || !Rect.intersects(area, excluded)){
+			addQueryArea(area.left, area.top, area.right, area.bottom);
+			return;
+		}
+
+		//left and right strips are full height, top and bottom strips are between them
+		final int l = Math.max(area.left, excluded.left);
+		final int r = Math.min(area.right, excluded.right);
+		addQueryArea(area.left, area.top, l, area.bottom);
+		addQueryArea(r, area.top, area.right, area.bottom);
+		addQueryArea(l, area.top, r, excluded.top);
+		addQueryArea(l, excluded.bottom, r, area.bottom);
+	}
+
+	/**
+	 * Starts query consisting of several areas, tiles overlapping more of them are reported once
+	 */
+	public void startAreaQuery(){
+		mQueryAreaCount = 0;
+		mResultCount = 0;
+	}
+
+	/**
+	 * Tile overlapping more cells is reported only from cell, where its intersection with area starts
+	 */
+	public void addQueryArea(int left, int top, int right, int bottom){
+		if(mColumns == 0 || left >= right || top >= bottom) return;
+
+		final int firstCol = getColumn(left);
+		final int lastCol = getColumn(right - 1);
+		final int firstRow = getRow(top);
+		final int lastRow = getRow(bottom - 1);
+		int tile, x, y;
+		for(int row = firstRow; row <= lastRow; row++){
+			for(int col = firstCol; col <= lastCol; col++){
+				final int c = row * mColumns + col;
+				final int end = mCellItemsOffset + mData.get(mCellStartOffset + c + 1);
+				for(int j = mCellItemsOffset + mData.get(mCellStartOffset + c); j < end; j++){
+					tile = mData.get(j);
+					x = getX(tile);
+					y = getY(tile);
+					if(x >= right || x + getWidth(tile) <= left || y >= bottom || y + getHeight(tile) <= top) continue;
+					if(getColumn(Math.max(x, left)) != col || getRow(Math.max(y, top)) != row) continue;
+					if(intersectsQueryArea(tile)) continue;
+					addResult(tile);
+				}
+			}
+		}
+		addQueryAreaToList(left, top, right, bottom);
+	}
+
+	public int getAreaResultCount(){
+		return mResultCount;
+	}
+
+	/**
+	 * @return index of tile
+	 */
+	public int getAreaResult(int i){
+		return mResults[i];
+	}
+
+	private boolean intersectsQueryArea(int tile){
+		final int x = getX(tile);
+		final int y = getY(tile);
+		final int right = x + getWidth(tile);
+		final int bottom = y + getHeight(tile);
+		for(int i=0; i < mQueryAreaCount * 4; i += 4){
+			if(x < mQueryAreas[i + 2] && right > mQueryAreas[i] && y < mQueryAreas[i + 3] && bottom > mQueryAreas[i + 1]) return true;
+		}
+		return false;
+	}
+
+	private void addQueryAreaToList(int left, int top, int right, int bottom){
+		if(mQueryAreaCount * 4 == mQueryAreas.length) mQueryAreas = Arrays.copyOf(mQueryAreas, mQueryAreas.length * 2);
+		final int i = mQueryAreaCount++ * 4;
+		mQueryAreas[i] = left;
+		mQueryAreas[i + 1] = top;
+		mQueryAreas[i + 2] = right;
+		mQueryAreas[i + 3] = bottom;
+	}
+
+	private void addResult(int tile){
+		if(mResultCount == mResults.length) mResults = Arrays.copyOf(mResults, mResults.length * 2);
+		mResults[mResultCount++] = tile;
+	}
+
+	private int getColumn(int x){
+		if(x < mGridLeft) return 0;
+		return Math.min(mColumns - 1, (x - mGridLeft) / mCellWidth);
+	}
+
+	private int getRow(int y){
+		if(y < mGridTop) return 0;
+		return Math.min(mRows - 1, (y - mGridTop) / mCellHeight);
+	}
+
+	/**
+	 * @return rank of first tile in order by right edges with right edge equal to value or greater, or size if there is none
+	 */
+	public int lowerBoundRight(int value){
+		int lo = 0;
+		int hi = mSize;
+		while(lo < hi){
+			final int mid = (lo + hi) >>> 1;
+			if(getXRight(getIndexByRight(mid)) < value) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+}
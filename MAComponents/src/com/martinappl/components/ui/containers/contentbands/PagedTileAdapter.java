@@ -0,0 +1,487 @@
+package com.martinappl.components.ui.containers.contentbands;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.View;
+
+import com.martinappl.components.general.ToolBox;
+import com.martinappl.components.general.Validate;
+import com.martinappl.components.ui.containers.RecycledViewPool;
+import com.martinappl.components.ui.containers.contentbands.BasicContentBand.LayoutParams;
+
+/**
+ * @author Martin Appl
+ *
+ * Content band adapter, which doesn't need all tiles in memory. Layout is split to chunks of fixed width in DSP and tiles of chunk
+ * are loaded from PagedTileSource on background executor, when viewport gets near to it. Loaded chunks are kept in TileStores,
+ * least recently used chunks are dropped when there are more of them than cache size.
+ * Band shows placeholder over region of chunk, which is not loaded yet, and replaces it by tiles when loading finishes.
+ * Requested chunks are loaded one at a time, most recently requested first, so chunks on screen are loaded before chunks,
+ * which viewport already passed. Requests, which would not fit to cache, are dropped before loading.
+ * Implement getViewForTile and getPlaceholderView. Adapter must be used on UI thread.
+ */
+public abstract class PagedTileAdapter<V extends View> implements BasicContentBand.Adapter {
+	/** Tile id in layout params of placeholder views */
+	public static final int PLACEHOLDER_TILE_ID = Integer.MIN_VALUE;
+
+	private static final String TAG = "PagedTileAdapter";
+	private static ExecutorService sDefaultExecutor;
+
+	private final BasicContentBand.ViewCache<V> mViewCache = new BasicContentBand.ViewCache<V>();
+	private RecycledViewPool mRecycledViewPool;
+	private int mRecycledViewType;
+	private final ArrayList<View> mPlaceholders = new ArrayList<View>();
+
+	private final PagedTileSource mSource;
+	private final int mChunkWidth;
+	private final int mMaxCachedChunks;
+	private int mPrefetchDistance;
+	private Executor mExecutor;
+	private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+	/** Loaded chunks by their index, in order of last access */
+	@SuppressWarnings("serial")
+	private final LinkedHashMap<Integer, TileStore> mChunks = new LinkedHashMap<Integer, TileStore>(16, 0.75f, true){
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, TileStore> eldest) {
+			if(size() <= mMaxCachedChunks) return false;
+			mLoadedTileCount -= eldest.getValue().size();
+			return true;
+		}
+	};
+	/** Pending and loading chunks */
+	private final HashSet<Integer> mLoadingChunks = new HashSet<Integer>();
+	/** Chunks waiting for loading, last requested is at the end */
+	private final ArrayDeque<Integer> mPendingChunks = new ArrayDeque<Integer>();
+	private boolean isLoadRunning;
+	private int mLoadedTileCount;
+
+	private final ArrayList<View> mTempViews = new ArrayList<View>();
+	private final Rect mTempArea = new Rect();
+	private final Rect mLoadedArea = new Rect();
+	private IChunkListener mChunkListener;
+
+	/**
+	 * @param source source of tiles
+	 * @param chunkWidth width of range of DSP loaded at once, about one or two screens
+	 * @param maxCachedChunks number of loaded chunks kept in memory, must cover screen and prefetched chunks around it
+	 */
+	public PagedTileAdapter(PagedTileSource source, int chunkWidth, int maxCachedChunks){
+		Validate.notNull(source, "Source must not be null");
+		Validate.isTrue(chunkWidth > 0, "Chunk width must be greater than zero: ", chunkWidth);
+		Validate.isTrue(maxCachedChunks > 0, "Cache must hold at least one chunk: ", maxCachedChunks);
+		mSource = source;
+		mChunkWidth = chunkWidth;
+		mMaxCachedChunks = maxCachedChunks;
+		mPrefetchDistance = chunkWidth;
+	}
+
+	/**
+	 * Use getLayoutParamsForTile to get correct layout params for tile and set them with setLayoutParams before returning View
+	 * @param store loaded chunk with tile data
+	 * @param tile index of tile in store
+	 * @param recycled View no more used and returned for recycling
+	 */
+	public abstract V getViewForTile(TileStore store, int tile, V recycled);
+
+	/**
+	 * View shown over region, which is not loaded yet. Adapter sets its layout params.
+	 * @param recycled placeholder no more used and returned for recycling
+	 */
+	public abstract View getPlaceholderView(View recycled);
+
+	/**
+	 * @param store loaded chunk with tile data
+	 * @param tile index of tile in store
+	 * @return ContendBand layout params
+	 */
+	public LayoutParams getLayoutParamsForTile(TileStore store, int tile){
+		LayoutParams lp = new LayoutParams();
+		lp.tileId = store.getId(tile);
+		lp.dspLeft = store.getX(tile);
+		lp.dspTop = store.getY(tile);
+		lp.dspWidth = store.getWidth(tile);
+		lp.dspHeight = store.getHeight(tile);
+		lp.z = store.getZ(tile);
+		return lp;
+	}
+
+	/**
+	 * Chunks closer than distance to queried area are loaded in advance. Default is one chunk width.
+	 */
+	public void setPrefetchDistance(int dsp){
+		Validate.isTrue(dsp >= 0, "Prefetch distance must not be negative: ", dsp);
+		mPrefetchDistance = dsp;
+	}
+
+	/**
+	 * Executor on which source loads tiles. Default is shared background thread. Adapter runs one load at a time on it.
+	 */
+	public void setExecutor(Executor executor){
+		mExecutor = executor;
+	}
+
+	public PagedTileSource getSource(){
+		return mSource;
+	}
+
+	/**
+	 * @return true if tiles of range are in memory
+	 */
+	public boolean isLoaded(int from, int to){
+		final int last = getChunk(to - 1);
+		for(int chunk = getChunk(from); chunk <= last; chunk++){
+			if(!mChunks.containsKey(chunk)) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return number of tiles in loaded chunks, tiles reaching over more chunks are counted in each of them
+	 */
+	@Override
+	public int getCount(){
+		return mLoadedTileCount;
+	}
+
+	@Override
+	public int getEnd(){
+		return mSource.getEnd();
+	}
+
+	@Override
+	public int getBottom(){
+		return mSource.getBottom();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void offerViewForRecycling(View view){
+		if(view.getLayoutParams() instanceof PlaceholderLayoutParams) mPlaceholders.add(view);
+		else if(mRecycledViewPool != null) mRecycledViewPool.put(mRecycledViewType, view);
+		else mViewCache.cacheView((V) view);
+	}
+
+	/**
+	 * Shares views for reuse with other containers attached to same pool. Pass null to use private cache of adapter.
+	 * Placeholders are always kept by adapter.
+	 * @param viewType type under which views of this adapter are kept in pool. All views of this type in pool must be instances of V.
+	 */
+	public void setRecycledViewPool(RecycledViewPool pool, int viewType){
+		mRecycledViewPool = pool;
+		mRecycledViewType = viewType;
+	}
+
+	@SuppressWarnings("unchecked")
+	private V getCachedView(){
+		if(mRecycledViewPool != null) return (V) mRecycledViewPool.get(mRecycledViewType);
+		else return mViewCache.getCachedView();
+	}
+
+	private V getView(TileStore store, int tile){
+		final V v = getViewForTile(store, tile, getCachedView());
+		if(!(v.getLayoutParams() instanceof LayoutParams)) v.setLayoutParams(getLayoutParamsForTile(store, tile));
+		return v;
+	}
+
+	private View getPlaceholder(int chunk){
+		final View v = getPlaceholderView(mPlaceholders.isEmpty() ? null : mPlaceholders.remove(mPlaceholders.size() - 1));
+		final LayoutParams lp = v.getLayoutParams() instanceof PlaceholderLayoutParams ? (LayoutParams) v.getLayoutParams() : new PlaceholderLayoutParams();
+		lp.tileId = PLACEHOLDER_TILE_ID;
+		lp.dspLeft = getChunkLeft(chunk);
+		lp.dspTop = 0;
+		lp.dspWidth = getChunkRight(chunk) - lp.dspLeft;
+		lp.dspHeight = getBottom();
+		lp.z = Integer.MIN_VALUE;
+		v.setLayoutParams(lp);
+		return v;
+	}
+
+	/**
+	 * Tiles of loaded chunks are returned, not loaded chunks are requested and placeholders returned for them.
+	 * Tile loaded with more chunks is returned by first loaded chunk, which it reaches to inside of area,
+	 * so part of tile over loaded chunk is not left empty, when chunk of its left edge is shown by placeholder.
+	 */
+	@Override
+	public void getViewsInArea(Rect area, Rect filled, List<View> out){
+		if(area.isEmpty()) return;
+
+		final int first = getChunk(area.left);
+		final int last = getChunk(area.right - 1);
+		TileStore store;
+		for(int chunk = first; chunk <= last; chunk++){
+			store = mChunks.get(chunk);
+			if(store != null){
+				addTileViews(store, chunk, area, filled, out);
+			}
+			else{
+				requestChunk(chunk);
+				mTempArea.set(getChunkLeft(chunk), 0, getChunkRight(chunk), getBottom());
+				if(Rect.intersects(mTempArea, area) && (filled.isEmpty() || !Rect.intersects(mTempArea, filled))){
+					out.add(getPlaceholder(chunk));
+				}
+			}
+		}
+
+		prefetch(area.left - mPrefetchDistance, area.left);
+		prefetch(area.right, area.right + mPrefetchDistance);
+		//chunks in area get on top of queue again, so they are loaded before prefetched ones
+		for(int chunk = last; chunk >= first; chunk--) requestChunk(chunk);
+		loadNextChunk();
+	}
+
+	private void addTileViews(TileStore store, int chunk, Rect area, Rect filled, List<View> out){
+		store.startAreaQuery();
+		store.addQueryAreaAround(area, filled);
+
+		final int c = store.getAreaResultCount();
+		int tile;
+		for(int i=0; i < c; i++){
+			tile = store.getAreaResult(i);
+			//tiles reaching from strips to filled area are displayed already
+			if(!filled.isEmpty() && store.getX(tile) < filled.right && store.getXRight(tile) > filled.left
+					&& store.getY(tile) < filled.bottom && store.getYBottom(tile) > filled.top) continue;
+			if(getOwnerChunk(Math.max(store.getX(tile), area.left), Math.min(store.getXRight(tile), area.right)) != chunk) continue;
+
+			out.add(getView(store, tile));
+		}
+	}
+
+	@Override
+	public View[] getViewsByLeftSideRange(int from, int to){
+		if(from >= to) return new View[0];
+
+		mTempViews.clear();
+		final int last = getChunk(to - 1);
+		TileStore store;
+		int tile;
+		for(int chunk = getChunk(from); chunk <= last; chunk++){
+			store = getOrRequestChunk(chunk);
+			if(store == null) continue;
+
+			final int lastRank = store.lowerBoundLeft(to);
+			for(int rank = store.lowerBoundLeft(from); rank < lastRank; rank++){
+				tile = store.getIndexByLeft(rank);
+				if(getChunk(store.getX(tile)) == chunk) mTempViews.add(getView(store, tile));
+			}
+		}
+		return drainTempViews();
+	}
+
+	@Override
+	public View[] getViewsByRightSideRange(int from, int to){
+		if(from >= to) return new View[0];
+
+		mTempViews.clear();
+		final int last = getChunk(to - 1);
+		TileStore store;
+		int tile;
+		for(int chunk = getChunk(from); chunk <= last; chunk++){
+			store = getOrRequestChunk(chunk);
+			if(store == null) continue;
+
+			final int lastRank = store.lowerBoundRight(to + 1);
+			for(int rank = store.lowerBoundRight(from + 1); rank < lastRank; rank++){ //from is exclusive
+				tile = store.getIndexByRight(rank);
+				if(getChunk(store.getXRight(tile) - 1) == chunk) mTempViews.add(getView(store, tile));
+			}
+		}
+		return drainTempViews();
+	}
+
+	@Override
+	public View[] getViewsVisibleInRange(int from, int to){
+		if(from >= to) return new View[0];
+
+		mTempViews.clear();
+		final int last = getChunk(to - 1);
+		TileStore store;
+		int tile;
+		for(int chunk = getChunk(from); chunk <= last; chunk++){
+			store = getOrRequestChunk(chunk);
+			if(store == null) continue;
+
+			store.queryArea(from, 0, to, store.getBottom());
+			for(int i=0; i < store.getAreaResultCount(); i++){
+				tile = store.getAreaResult(i);
+				if(getOwnerChunk(Math.max(store.getX(tile), from), Math.min(store.getXRight(tile), to)) == chunk) mTempViews.add(getView(store, tile));
+			}
+		}
+		return drainTempViews();
+	}
+
+	private View[] drainTempViews(){
+		final View[] arr = mTempViews.toArray(new View[mTempViews.size()]);
+		mTempViews.clear();
+		return arr;
+	}
+
+	private TileStore getOrRequestChunk(int chunk){
+		final TileStore store = mChunks.get(chunk);
+		if(store == null){
+			requestChunk(chunk);
+			loadNextChunk();
+		}
+		return store;
+	}
+
+	private void prefetch(int from, int to){
+		if(from >= to) return;
+		final int last = getChunk(to - 1);
+		for(int chunk = getChunk(from); chunk <= last; chunk++) requestChunk(chunk);
+	}
+
+	/**
+	 * Puts chunk to top of queue, loadNextChunk starts loading. Chunk requested again while waiting moves to top.
+	 * When more chunks wait than cache holds, oldest requests are dropped, they are out of viewport by now
+	 * and loading them would push needed chunks out of cache.
+	 */
+	private void requestChunk(int chunk){
+		if(mChunks.containsKey(chunk)) return;
+		if(!mLoadingChunks.add(chunk)){
+			if(mPendingChunks.removeLastOccurrence(chunk)) mPendingChunks.addLast(chunk);
+			return;
+		}
+
+		mPendingChunks.addLast(chunk);
+		if(mPendingChunks.size() > mMaxCachedChunks) mLoadingChunks.remove(mPendingChunks.removeFirst());
+	}
+
+	private void loadNextChunk(){
+		if(isLoadRunning || mPendingChunks.isEmpty()) return;
+		isLoadRunning = true;
+		getExecutor().execute(new LoadTask(mPendingChunks.removeLast()));
+	}
+
+	/**
+	 * Called on UI thread when source finished loading of chunk
+	 */
+	private void onChunkLoaded(LoadTask task){
+		mLoadingChunks.remove(task.chunk);
+		isLoadRunning = false;
+		loadNextChunk();
+		if(!task.isLoaded) return;
+
+		final TileStore store = task.store;
+		mChunks.put(task.chunk, store);
+		mLoadedTileCount += store.size();
+
+		if(mChunkListener != null){
+			//tiles of chunk can reach out of it, whole area covered by them and placeholder is refreshed
+			final int left = getChunkLeft(task.chunk);
+			final int tilesLeft = store.size() > 0 ? store.getX(store.getIndexByLeft(0)) : left;
+			mLoadedArea.set(Math.min(left, tilesLeft), 0, Math.max(getChunkRight(task.chunk), store.getEnd()), Math.max(getBottom(), store.getBottom()));
+			mChunkListener.onAreaLoaded(mLoadedArea);
+		}
+	}
+
+	/**
+	 * @return index of chunk containing DSP on X axis, clamped to chunks of layout
+	 */
+	private int getChunk(int dsp){
+		final int lastChunk = Math.max(0, (getEnd() - 1) / mChunkWidth);
+		return Math.min(lastChunk, Math.max(0, ToolBox.floorDiv(dsp, mChunkWidth)));
+	}
+
+	/**
+	 * @return first loaded chunk in range, tile reaching over more chunks is returned only by it. -1 if none is loaded
+	 */
+	private int getOwnerChunk(int from, int to){
+		final int last = getChunk(to - 1);
+		for(int chunk = getChunk(from); chunk <= last; chunk++){
+			if(mChunks.containsKey(chunk)) return chunk;
+		}
+		return -1;
+	}
+
+	private int getChunkLeft(int chunk){
+		return chunk * mChunkWidth;
+	}
+
+	private int getChunkRight(int chunk){
+		return Math.min(getEnd(), (chunk + 1) * mChunkWidth);
+	}
+
+	private Executor getExecutor(){
+		if(mExecutor != null) return mExecutor;
+
+		synchronized (PagedTileAdapter.class) {
+			if(sDefaultExecutor == null){
+				sDefaultExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+					@Override
+					public Thread newThread(final Runnable r) {
+						final Thread t = new Thread(new Runnable() {
+							@Override
+							public void run() {
+								android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_BACKGROUND);
+								r.run();
+							}
+						}, TAG);
+						t.setDaemon(true);
+						return t;
+					}
+				});
+			}
+			return sDefaultExecutor;
+		}
+	}
+
+	void setChunkListener(IChunkListener listener){
+		mChunkListener = listener;
+	}
+
+	/**
+	 * Loads chunk on worker thread and hands it over to UI thread
+	 */
+	private class LoadTask implements Runnable {
+		final int chunk;
+		final TileStore store = new TileStore();
+		boolean isLoaded;
+
+		LoadTask(int chunk){
+			this.chunk = chunk;
+		}
+
+		@Override
+		public void run() {
+			try{
+				mSource.loadTiles(getChunkLeft(chunk), getChunkRight(chunk), store);
+				store.buildIndex();
+				isLoaded = true;
+			}
+			catch(RuntimeException e){
+				Log.w(TAG, "Loading of chunk " + chunk + " failed, it will be requested again", e);
+			}
+
+			mHandler.post(new Runnable() {
+				@Override
+				public void run() {
+					onChunkLoaded(LoadTask.this);
+				}
+			});
+		}
+	}
+
+	private static class PlaceholderLayoutParams extends LayoutParams {}
+
+	interface IChunkListener {
+		/**
+		 * Tiles in area were loaded, views displayed there should be replaced
+		 * @param area in DSP coordinates of adapter
+		 */
+		void onAreaLoaded(Rect area);
+	}
+}
@@ -0,0 +1,27 @@
+package com.martinappl.components.ui.containers.contentbands;
+
+/**
+ * @author Martin Appl
+ *
+ * Source of tiles for PagedTileAdapter. Tiles are not held in memory all at once, adapter asks for them by ranges of DSP
+ * on X axis as viewport gets near. Extent of layout must be known without loading tiles, for example from time span of program guide.
+ */
+public interface PagedTileSource {
+	/**
+	 * @return right edge of layout in DSP
+	 */
+	public int getEnd();
+
+	/**
+	 * @return bottom edge of layout in DSP
+	 */
+	public int getBottom();
+
+	/**
+	 * Adds to out all tiles intersecting range on X axis. Called on background thread, adapter builds index of store itself.
+	 * Tile reaching over more ranges is loaded with each of them and must keep same id.
+	 * @param from inclusive
+	 * @param to exclusive
+	 */
+	public void loadTiles(int from, int to, TileStore out);
+}
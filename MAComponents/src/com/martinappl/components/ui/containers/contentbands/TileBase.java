@@ -7,6 +7,7 @@ package com.martinappl.components.ui.containers.contentbands;
  * This class includes data needed for positioning of tiles inside container.
  */
 public class TileBase {
+	static final int NO_SLOT = -1;
 	
 	private int id;
 	
@@ -16,6 +17,9 @@ public class TileBase {
 	private int width;
 	private int height;
 	
+	/** Place of tile in spatial index of AbstractAdapter, which holds it */
+	int spatialSlot = NO_SLOT;
+	
 	
 	public int getX(){
 		return x;
@@ -29,6 +33,10 @@ public class TileBase {
 		return y;
 	}
 	
+	public int getYBottom(){
+		return getY() + getHeight();
+	}
+	
 	public int getZ(){
 		return z;
 	}
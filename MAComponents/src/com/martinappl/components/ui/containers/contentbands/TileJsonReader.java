@@ -0,0 +1,309 @@
+package com.martinappl.components.ui.containers.contentbands;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+/**
+ * @author Martin Appl
+ *
+ * Streaming reader of tile layouts in JSON, fills TileStore straight from bytes of UTF-8 input.
+ * Names of fields are compared as bytes and numbers are accumulated digit by digit, so no Strings or objects are created
+ * per tile. Layout is array of tiles, or object with such array in member "tiles":
+ * <pre>
+ * 	{"tiles": [{"id": 1, "x": 0, "y": 0, "width": 30, "height": 10, "z": 0, "title": "News"}, ...]}
+ * </pre>
+ * Numeric fields can be numbers or strings containing number, fractions are truncated. Tile without id gets its order in input,
+ * other missing fields are zero. Other members are skipped.
+ *
+ * Reader keeps no shared state, use it on background thread. Interrupting the thread stops reading with InterruptedIOException.
+ */
+public class TileJsonReader {
+	private static final int BUFFER_SIZE = 16 * 1024;
+	private static final int INTERRUPT_CHECK_INTERVAL = 1024;
+	private static final int MAX_KEY_LENGTH = 16;
+
+	private static final int FIELD_UNKNOWN = -1;
+	private static final int FIELD_ID = 0;
+	private static final int FIELD_X = 1;
+	private static final int FIELD_Y = 2;
+	private static final int FIELD_WIDTH = 3;
+	private static final int FIELD_HEIGHT = 4;
+	private static final int FIELD_Z = 5;
+	private static final byte[][] FIELD_NAMES = { ascii("id"), ascii("x"), ascii("y"), ascii("width"), ascii("height"), ascii("z") };
+	private static final byte[] TILES_NAME = ascii("tiles");
+
+	private final InputStream mIn;
+	private final byte[] mBuffer = new byte[BUFFER_SIZE];
+	private int mPos;
+	private int mLimit;
+	/** Number of bytes read before current buffer */
+	private long mOffset;
+
+	private final byte[] mKey = new byte[MAX_KEY_LENGTH];
+	/** Length of last read key, -1 if key can't be name of known field */
+	private int mKeyLength;
+	private final int[] mValues = new int[FIELD_NAMES.length];
+	private int mTileCount;
+
+	/**
+	 * @param in UTF-8 input, it is read in blocks, so it doesn't need to be buffered. Reader doesn't close it.
+	 */
+	public TileJsonReader(InputStream in){
+		mIn = in;
+	}
+
+	/**
+	 * Reads tiles and builds index of returned store
+	 */
+	public static TileStore read(InputStream in) throws IOException {
+		final TileStore store = new TileStore();
+		new TileJsonReader(in).readTiles(store);
+		store.buildIndex();
+		return store;
+	}
+
+	/**
+	 * Adds all tiles of layout to store. Index of store is not built, call buildIndex when all tiles are added.
+	 * @return number of tiles read
+	 */
+	public int readTiles(TileStore out) throws IOException {
+		skipByteOrderMark();
+
+		final int first = nextNonWhitespace();
+		if(first == '['){
+			readTileArray(out);
+		}
+		else if(first == '{'){
+			boolean found = false;
+			if(peekNonWhitespace() == '}') read();
+			else do{
+				readKey();
+				expect(':');
+				if(!found && isKey(TILES_NAME)){
+					expect('[');
+					readTileArray(out);
+					found = true;
+				}
+				else skipValue();
+			} while(nextSeparator('}'));
+
+			if(!found) throw error("Member \"tiles\" not found");
+		}
+		else throw error("Expected array or object");
+
+		return mTileCount;
+	}
+
+	/**
+	 * Opening bracket is consumed already
+	 */
+	private void readTileArray(TileStore out) throws IOException {
+		if(peekNonWhitespace() == ']'){
+			read();
+			return;
+		}
+
+		do{
+			readTile(out);
+		} while(nextSeparator(']'));
+	}
+
+	private void readTile(TileStore out) throws IOException {
+		expect('{');
+		for(int i=0; i < mValues.length; i++) mValues[i] = 0;
+		mValues[FIELD_ID] = mTileCount;
+
+		if(peekNonWhitespace() == '}') read();
+		else do{
+			readKey();
+			expect(':');
+			final int field = getField();
+			if(field == FIELD_UNKNOWN) skipValue();
+			else mValues[field] = readInt();
+		} while(nextSeparator('}'));
+
+		out.add(mValues[FIELD_ID], mValues[FIELD_X], mValues[FIELD_Y], mValues[FIELD_WIDTH], mValues[FIELD_HEIGHT], mValues[FIELD_Z]);
+		mTileCount++;
+
+		if(mTileCount % INTERRUPT_CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()){
+			throw new InterruptedIOException("Reading of tiles was interrupted after " + mTileCount + " tiles");
+		}
+	}
+
+	/**
+	 * Reads member name to key buffer, names which can't be field names are only skipped
+	 */
+	private void readKey() throws IOException {
+		expect('"');
+		mKeyLength = 0;
+		int b;
+		while((b = read()) != '"'){
+			if(b == -1) throw error("Unterminated string");
+			if(b == '\\'){
+				if(read() == -1) throw error("Unterminated string");
+				mKeyLength = -1;
+			}
+			else if(mKeyLength >= 0){
+				if(mKeyLength == MAX_KEY_LENGTH) mKeyLength = -1;
+				else mKey[mKeyLength++] = (byte) b;
+			}
+		}
+	}
+
+	private boolean isKey(byte[] name){
+		if(mKeyLength != name.length) return false;
+		for(int i=0; i < name.length; i++){
+			if(mKey[i] != name[i]) return false;
+		}
+		return true;
+	}
+
+	private int getField(){
+		for(int i=0; i < FIELD_NAMES.length; i++){
+			if(isKey(FIELD_NAMES[i])) return i;
+		}
+		return FIELD_UNKNOWN;
+	}
+
+	/**
+	 * Reads integer number or string containing it, digits are accumulated without creating String
+	 */
+	private int readInt() throws IOException {
+		int b = nextNonWhitespace();
+		final boolean quoted = b == '"';
+		if(quoted) b = read();
+
+		final boolean negative = b == '-';
+		if(negative) b = read();
+		if(b < '0' || b > '9') throw error("Expected number");
+
+		long value = 0;
+		while(b >= '0' && b <= '9'){
+			value = value * 10 + (b - '0');
+			if(value > 1L + Integer.MAX_VALUE) throw error("Number is out of int range");
+			b = read();
+		}
+		if(b == '.'){ //fraction is truncated
+			b = read();
+			while(b >= '0' && b <= '9') b = read();
+		}
+		if(b == 'e' || b == 'E') throw error("Exponent is not supported");
+
+		if(quoted){
+			if(b != '"') throw error("Expected end of string");
+		}
+		else if(b != -1) mPos--;
+
+		if(negative) value = -value;
+		if(value > Integer.MAX_VALUE) throw error("Number is out of int range");
+		return (int) value;
+	}
+
+	private void skipValue() throws IOException {
+		int b = nextNonWhitespace();
+		if(b == '"'){
+			skipString();
+		}
+		else if(b == '{' || b == '['){
+			int depth = 1;
+			while(depth > 0){
+				b = read();
+				if(b == -1) throw error("Unterminated object or array");
+				else if(b == '"') skipString();
+				else if(b == '{' || b == '[') depth++;
+				else if(b == '}' || b == ']') depth--;
+			}
+		}
+		else{
+			if(b == -1 || b == ',' || b == '}' || b == ']') throw error("Expected value");
+			//number or literal
+			while((b = read()) != -1 && b != ',' && b != '}' && b != ']' && !isWhitespace(b));
+			if(b != -1) mPos--;
+		}
+	}
+
+	/**
+	 * Opening quote is consumed already
+	 */
+	private void skipString() throws IOException {
+		int b;
+		while((b = read()) != '"'){
+			if(b == -1) throw error("Unterminated string");
+			if(b == '\\' && read() == -1) throw error("Unterminated string");
+		}
+	}
+
+	/**
+	 * @return true if comma follows, false if closing bracket follows
+	 */
+	private boolean nextSeparator(int close) throws IOException {
+		final int b = nextNonWhitespace();
+		if(b == ',') return true;
+		if(b == close) return false;
+		throw error("Expected ',' or '" + (char) close + "'");
+	}
+
+	private void expect(int c) throws IOException {
+		if(nextNonWhitespace() != c) throw error("Expected '" + (char) c + "'");
+	}
+
+	private void skipByteOrderMark() throws IOException {
+		if(read() != 0xEF){
+			if(mLimit > 0) mPos--;
+			return;
+		}
+		if(read() != 0xBB || read() != 0xBF) throw error("Invalid byte order mark");
+	}
+
+	private int peekNonWhitespace() throws IOException {
+		final int b = nextNonWhitespace();
+		if(b != -1) mPos--;
+		return b;
+	}
+
+	private int nextNonWhitespace() throws IOException {
+		int b;
+		do{
+			b = read();
+		} while(isWhitespace(b));
+		return b;
+	}
+
+	private static boolean isWhitespace(int b){
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+	}
+
+	/**
+	 * @return next byte or -1 at end of input
+	 */
+	private int read() throws IOException {
+		if(mPos == mLimit && !fill()) return -1;
+		return mBuffer[mPos++] & 0xFF;
+	}
+
+	private boolean fill() throws IOException {
+		mOffset += mLimit;
+		mPos = 0;
+		mLimit = 0;
+
+		int n;
+		do{
+			n = mIn.read(mBuffer);
+		} while(n == 0);
+		if(n < 0) return false;
+
+		mLimit = n;
+		return true;
+	}
+
+	private IOException error(String message){
+		return new IOException("Malformed tile layout at byte " + (mOffset + mPos) + ": " + message);
+	}
+
+	private static byte[] ascii(String s){
+		final byte[] bytes = new byte[s.length()];
+		for(int i=0; i < bytes.length; i++) bytes[i] = (byte) s.charAt(i);
+		return bytes;
+	}
+}
@@ -0,0 +1,188 @@
+package com.martinappl.components.ui.containers.contentbands;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+import com.martinappl.components.general.Validate;
+
+/**
+ * @author Martin Appl
+ *
+ * Writes tile layouts in binary format read by MappedTileLayout. Convert layout once, when it is downloaded or parsed,
+ * and map written file on next starts instead of parsing it again.
+ * File is written to temporary file first and renamed when complete, so reader never sees partly written layout.
+ */
+public final class TileLayoutWriter {
+	private static final int BUFFER_SIZE = 64 * 1024;
+	/** Limits number of grid cells, when tiles are sparse compared to their size */
+	private static final int MAX_CELLS_PER_TILE = 4;
+
+	private TileLayoutWriter(){}
+
+	public static void write(List<? extends TileBase> tiles, File file) throws IOException {
+		final TileStore store = new TileStore(tiles.size());
+		TileBase t;
+		for(int i=0; i < tiles.size(); i++){
+			t = tiles.get(i);
+			store.add(t.getId(), t.getX(), t.getY(), t.getWidth(), t.getHeight(), t.getZ());
+		}
+		store.buildIndex();
+		write(store, file);
+	}
+
+	/**
+	 * @param store store with built index
+	 */
+	public static void write(TileStore store, File file) throws IOException {
+		final int size = store.size();
+		Validate.isTrue(store.getIndexedSize() == size, "Index of store must be built before writing, tiles: ", size);
+
+		//records are written in order by left edges, so index of record is its rank by left edge
+		final int[] rankByLeft = new int[size];
+		int maxWidth = 0;
+		for(int rank=0; rank < size; rank++){
+			final int tile = store.getIndexByLeft(rank);
+			rankByLeft[tile] = rank;
+			maxWidth = Math.max(maxWidth, store.getWidth(tile));
+		}
+		final Grid grid = new Grid(store);
+
+		final File tmp = new File(file.getPath() + ".tmp");
+		final FileOutputStream out = new FileOutputStream(tmp);
+		try{
+			final FileChannel channel = out.getChannel();
+			final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(MappedTileLayout.BYTE_ORDER);
+
+			buffer.putInt(MappedTileLayout.MAGIC);
+			buffer.putInt(MappedTileLayout.VERSION);
+			buffer.putInt(size);
+			buffer.putInt(store.getEnd());
+			buffer.putInt(store.getBottom());
+			buffer.putInt(maxWidth);
+			buffer.putInt(grid.left);
+			buffer.putInt(grid.top);
+			buffer.putInt(grid.cellWidth);
+			buffer.putInt(grid.cellHeight);
+			buffer.putInt(grid.columns);
+			buffer.putInt(grid.rows);
+
+			int tile;
+			for(int rank=0; rank < size; rank++){
+				if(buffer.remaining() < MappedTileLayout.RECORD_INTS * 4) flush(buffer, channel);
+				tile = store.getIndexByLeft(rank);
+				buffer.putInt(store.getId(tile));
+				buffer.putInt(store.getX(tile));
+				buffer.putInt(store.getY(tile));
+				buffer.putInt(store.getWidth(tile));
+				buffer.putInt(store.getHeight(tile));
+				buffer.putInt(store.getZ(tile));
+			}
+			for(int rank=0; rank < size; rank++){
+				if(buffer.remaining() < 4) flush(buffer, channel);
+				buffer.putInt(rankByLeft[store.getIndexByRight(rank)]);
+			}
+			for(int c=0; c < grid.cellStart.length; c++){
+				if(buffer.remaining() < 4) flush(buffer, channel);
+				buffer.putInt(grid.cellStart[c]);
+			}
+			for(int j=0; j < grid.cellItems.length; j++){
+				if(buffer.remaining() < 4) flush(buffer, channel);
+				buffer.putInt(rankByLeft[grid.cellItems[j]]);
+			}
+			flush(buffer, channel);
+			out.getFD().sync();
+		}
+		finally{
+			out.close();
+		}
+
+		if(!tmp.renameTo(file)){
+			tmp.delete();
+			throw new IOException("Can't rename " + tmp + " to " + file);
+		}
+	}
+
+	/**
+	 * Uniform grid over tiles, every tile is registered in all cells it overlaps. Cell has size of average tile,
+	 * so typical query visits few cells and few tiles in each of them. Items are indexes of tiles in store.
+	 */
+	private static class Grid {
+		int left;
+		int top;
+		int cellWidth = 1;
+		int cellHeight = 1;
+		int columns;
+		int rows;
+		int[] cellStart = new int[1];
+		int[] cellItems = new int[0];
+
+		Grid(TileStore store){
+			final int size = store.size();
+			if(size == 0) return;
+
+			int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+			long widthSum = 0, heightSum = 0;
+			for(int i=0; i < size; i++){
+				minX = Math.min(minX, store.getX(i));
+				minY = Math.min(minY, store.getY(i));
+				maxX = Math.max(maxX, Math.max(store.getX(i), store.getXRight(i) - 1));
+				maxY = Math.max(maxY, Math.max(store.getY(i), store.getYBottom(i) - 1));
+				widthSum += store.getWidth(i);
+				heightSum += store.getHeight(i);
+			}
+
+			left = minX;
+			top = minY;
+			cellWidth = Math.max(1, (int) (widthSum / size));
+			cellHeight = Math.max(1, (int) (heightSum / size));
+			final long maxCells = (long) size * MAX_CELLS_PER_TILE + 16;
+			while((long)((maxX - minX) / cellWidth + 1) * ((maxY - minY) / cellHeight + 1) > maxCells){
+				cellWidth *= 2;
+				cellHeight *= 2;
+			}
+			columns = (maxX - minX) / cellWidth + 1;
+			rows = (maxY - minY) / cellHeight + 1;
+
+			//count tiles in cells, then turn counts to offsets and place tiles
+			final int cells = columns * rows;
+			cellStart = new int[cells + 1];
+			for(int i=0; i < size; i++){
+				for(int row = getRow(store.getY(i)); row <= getRow(Math.max(store.getY(i), store.getYBottom(i) - 1)); row++){
+					for(int col = getColumn(store.getX(i)); col <= getColumn(Math.max(store.getX(i), store.getXRight(i) - 1)); col++){
+						cellStart[row * columns + col + 1]++;
+					}
+				}
+			}
+			for(int c=0; c < cells; c++) cellStart[c + 1] += cellStart[c];
+
+			cellItems = new int[cellStart[cells]];
+			final int[] fill = new int[cells];
+			for(int i=0; i < size; i++){
+				for(int row = getRow(store.getY(i)); row <= getRow(Math.max(store.getY(i), store.getYBottom(i) - 1)); row++){
+					for(int col = getColumn(store.getX(i)); col <= getColumn(Math.max(store.getX(i), store.getXRight(i) - 1)); col++){
+						final int c = row * columns + col;
+						cellItems[cellStart[c] + fill[c]++] = i;
+					}
+				}
+			}
+		}
+
+		private int getColumn(int x){
+			return Math.min(columns - 1, (x - left) / cellWidth);
+		}
+
+		private int getRow(int y){
+			return Math.min(rows - 1, (y - top) / cellHeight);
+		}
+	}
+
+	private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining()) channel.write(buffer);
+		buffer.clear();
+	}
+}
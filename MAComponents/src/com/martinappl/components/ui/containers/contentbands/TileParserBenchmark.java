@@ -0,0 +1,153 @@
+package com.martinappl.components.ui.containers.contentbands;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Random;
+
+import android.util.JsonReader;
+
+/**
+ * @author Martin Appl
+ *
+ * Compares TileJsonReader with parsing to TileBase objects through android.util.JsonReader and String setters of TileBase.
+ * Both parsers read same generated program guide like layout from memory, so only parsing is measured, not storage.
+ * Run it on background thread from test activity or instrumentation on device, numbers from desktop JVM differ a lot from Dalvik.
+ * <pre>
+ * 	Log.i(TAG, TileParserBenchmark.run(100000, 5).toString());
+ * </pre>
+ */
+public final class TileParserBenchmark {
+	private static final int ROW_HEIGHT = 10;
+	private static final int TILES_PER_ROW = 1000;
+	private static final int MIN_TILE_WIDTH = 3;
+	private static final int MAX_TILE_WIDTH = 30;
+
+	private TileParserBenchmark(){}
+
+	public static class Result {
+		public int tileCount;
+		public int repeats;
+		public int inputBytes;
+		/** Average time of one parse */
+		public long streamingNanos;
+		public long objectNanos;
+		/** Number of parsed tiles, should be same for both parsers */
+		public int streamingTiles;
+		public int objectTiles;
+
+		@Override
+		public String toString() {
+			return "TileParserBenchmark tiles=" + tileCount + ", input=" + inputBytes / 1024 + "kB, repeats=" + repeats
+					+ "\n streaming: " + streamingNanos / 1000000 + "ms, " + tilesPerSecond(streamingNanos) + " tiles/s, " + kilobytesPerSecond(streamingNanos) + "kB/s"
+					+ "\n objects: " + objectNanos / 1000000 + "ms, " + tilesPerSecond(objectNanos) + " tiles/s, " + kilobytesPerSecond(objectNanos) + "kB/s"
+					+ "\n parsed: streaming=" + streamingTiles + ", objects=" + objectTiles;
+		}
+
+		private long tilesPerSecond(long nanos){
+			return nanos > 0 ? tileCount * 1000000000L / nanos : 0;
+		}
+
+		private long kilobytesPerSecond(long nanos){
+			return nanos > 0 ? inputBytes * 1000000000L / nanos / 1024 : 0;
+		}
+	}
+
+	/**
+	 * @param tileCount number of tiles in generated layout
+	 * @param repeats number of measured parses by each parser, one more parse warms up code
+	 */
+	public static Result run(int tileCount, int repeats) throws IOException {
+		final Result result = new Result();
+		result.tileCount = tileCount;
+		result.repeats = repeats;
+
+		final byte[] input = generate(tileCount, new Random(42));
+		result.inputBytes = input.length;
+
+		final TileStore store = new TileStore(tileCount);
+		parseStreaming(input, store);
+		long start = System.nanoTime();
+		for(int i=0; i < repeats; i++){
+			store.clear();
+			result.streamingTiles = parseStreaming(input, store);
+		}
+		result.streamingNanos = repeats > 0 ? (System.nanoTime() - start) / repeats : 0;
+
+		parseObjects(input);
+		start = System.nanoTime();
+		for(int i=0; i < repeats; i++){
+			result.objectTiles = parseObjects(input).size();
+		}
+		result.objectNanos = repeats > 0 ? (System.nanoTime() - start) / repeats : 0;
+
+		return result;
+	}
+
+	private static int parseStreaming(byte[] input, TileStore store) throws IOException {
+		return new TileJsonReader(new ByteArrayInputStream(input)).readTiles(store);
+	}
+
+	private static ArrayList<TileBase> parseObjects(byte[] input) throws IOException {
+		final ArrayList<TileBase> tiles = new ArrayList<TileBase>();
+		final JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(input), "UTF-8"));
+		try{
+			reader.beginObject();
+			while(reader.hasNext()){
+				if(!"tiles".equals(reader.nextName())){
+					reader.skipValue();
+					continue;
+				}
+
+				reader.beginArray();
+				while(reader.hasNext()){
+					final TileBase t = new TileBase();
+					reader.beginObject();
+					while(reader.hasNext()){
+						final String name = reader.nextName();
+						if("id".equals(name)) t.setId(reader.nextString());
+						else if("x".equals(name)) t.setX(reader.nextString());
+						else if("y".equals(name)) t.setY(reader.nextString());
+						else if("width".equals(name)) t.setWidth(reader.nextString());
+						else if("height".equals(name)) t.setHeight(reader.nextString());
+						else if("z".equals(name)) t.setZ(reader.nextString());
+						else reader.skipValue();
+					}
+					reader.endObject();
+					tiles.add(t);
+				}
+				reader.endArray();
+			}
+			reader.endObject();
+		}
+		finally{
+			reader.close();
+		}
+		return tiles;
+	}
+
+	/**
+	 * @return UTF-8 JSON layout, tiles fill rows one after another and have title, which parsers skip
+	 */
+	private static byte[] generate(int tileCount, Random random) throws UnsupportedEncodingException {
+		final StringBuilder sb = new StringBuilder(tileCount * 96);
+		sb.append("{\"version\": 1, \"tiles\": [\n");
+		int x = 0;
+		for(int i=0; i < tileCount; i++){
+			if(i % TILES_PER_ROW == 0) x = 0;
+			final int width = MIN_TILE_WIDTH + random.nextInt(MAX_TILE_WIDTH - MIN_TILE_WIDTH + 1);
+			if(i > 0) sb.append(",\n");
+			sb.append("{\"id\": ").append(i)
+				.append(", \"x\": ").append(x)
+				.append(", \"y\": ").append((i / TILES_PER_ROW) * ROW_HEIGHT)
+				.append(", \"width\": ").append(width)
+				.append(", \"height\": ").append(ROW_HEIGHT)
+				.append(", \"z\": 0, \"title\": \"Program ").append(i).append(" \\\"live\\\"\"}");
+			x += width;
+		}
+		sb.append("\n]}");
+		return sb.toString().getBytes("UTF-8");
+	}
+}
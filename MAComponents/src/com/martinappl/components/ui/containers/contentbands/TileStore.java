@@ -0,0 +1,282 @@
+package com.martinappl.components.ui.containers.contentbands;
+
+import java.util.Arrays;
+
+import android.graphics.Rect;
+
+import com.martinappl.components.general.SpatialGridIndex;
+import com.martinappl.components.general.Validate;
+
+/**
+ * @author Martin Appl
+ *
+ * Tile data of content band kept in parallel int arrays, one array for every tile property, instead of TileBase objects.
+ * Tile is identified by its index in store. Use it for bands with hundreds of thousands of tiles, where object per tile
+ * costs too much memory and queries spend most time jumping between objects.
+ *
+ * Tiles are added with add, then index is built by buildIndex. Queries by edges return ranges of ranks in sorted order,
+ * use getIndexByLeft and getIndexByRight to map rank to index of tile:
+ * <pre>
+ * 	final int to = store.lowerBoundLeft(dspTo);
+ * 	for(int rank = store.lowerBoundLeft(dspFrom); rank < to; rank++){
+ * 		final int tile = store.getIndexByLeft(rank);
+ * 		store.getX(tile);
+ * 	}
+ * </pre>
+ * DSP = device specific pixel
+ */
+public class TileStore {
+	private static final int DEFAULT_CAPACITY = 64;
+
+	private int mSize;
+	private int[] mIds;
+	private int[] mX;
+	private int[] mRight;
+	private int[] mY;
+	private int[] mWidth;
+	private int[] mHeight;
+	private int[] mZ;
+
+	/** Indexes of tiles sorted by left edge */
+	private int[] mByLeft = new int[0];
+	/** Indexes of tiles sorted by right edge */
+	private int[] mByRight = new int[0];
+	private int mIndexedSize;
+	private int mEnd;
+	private int mBottom;
+
+	private final SpatialGridIndex mSpatialIndex = new SpatialGridIndex();
+
+	public TileStore(){
+		this(DEFAULT_CAPACITY);
+	}
+
+	public TileStore(int capacity){
+		Validate.isTrue(capacity >= 0, "Capacity must not be negative: ", capacity);
+		mIds = new int[capacity];
+		mX = new int[capacity];
+		mRight = new int[capacity];
+		mY = new int[capacity];
+		mWidth = new int[capacity];
+		mHeight = new int[capacity];
+		mZ = new int[capacity];
+	}
+
+	/**
+	 * Appends tile. Queries don't see it until buildIndex is called.
+	 * @return index of tile
+	 */
+	public int add(int id, int x, int y, int width, int height, int z){
+		if(mSize == mIds.length) ensureCapacity(Math.max(DEFAULT_CAPACITY, mSize * 2));
+
+		final int i = mSize++;
+		mIds[i] = id;
+		mX[i] = x;
+		mRight[i] = x + width;
+		mY[i] = y;
+		mWidth[i] = width;
+		mHeight[i] = height;
+		mZ[i] = z;
+		return i;
+	}
+
+	public void ensureCapacity(int capacity){
+		if(capacity <= mIds.length) return;
+		mIds = Arrays.copyOf(mIds, capacity);
+		mX = Arrays.copyOf(mX, capacity);
+		mRight = Arrays.copyOf(mRight, capacity);
+		mY = Arrays.copyOf(mY, capacity);
+		mWidth = Arrays.copyOf(mWidth, capacity);
+		mHeight = Arrays.copyOf(mHeight, capacity);
+		mZ = Arrays.copyOf(mZ, capacity);
+	}
+
+	/**
+	 * Removes all tiles, keeps allocated arrays
+	 */
+	public void clear(){
+		mSize = 0;
+		buildIndex();
+	}
+
+	/**
+	 * Sorts tiles by their edges and indexes their rectangles. Call after tiles were added.
+	 */
+	public void buildIndex(){
+		if(mByLeft.length < mSize){
+			mByLeft = new int[mSize];
+			mByRight = new int[mSize];
+		}
+		sortIndexes(mX, mByLeft);
+		sortIndexes(mRight, mByRight);
+		mIndexedSize = mSize;
+
+		mEnd = 0;
+		mBottom = 0;
+		long widthSum = 0, heightSum = 0;
+		final int[] bottom = new int[mSize];
+		for(int i=0; i < mSize; i++){
+			bottom[i] = mY[i] + mHeight[i];
+			mEnd = Math.max(mEnd, mRight[i]);
+			mBottom = Math.max(mBottom, bottom[i]);
+			widthSum += mWidth[i];
+			heightSum += mHeight[i];
+		}
+
+		final int cellWidth = mSize > 0 ? (int) (widthSum / mSize) : 1;
+		final int cellHeight = mSize > 0 ? (int) (heightSum / mSize) : 1;
+		mSpatialIndex.buildWrapping(mX, mY, mRight, bottom, mSize, cellWidth, cellHeight);
+	}
+
+	/**
+	 * Key and index are packed to one long, so sorting is done on primitives and equal keys stay in order of indexes
+	 */
+	private void sortIndexes(int[] keys, int[] out){
+		final long[] packed = new long[mSize];
+		for(int i=0; i < mSize; i++){
+			packed[i] = ((long) keys[i] << 32) | i;
+		}
+		Arrays.sort(packed);
+		for(int i=0; i < mSize; i++){
+			out[i] = (int) packed[i];
+		}
+	}
+
+	/**
+	 * @return number of tiles
+	 */
+	public int size(){
+		return mSize;
+	}
+
+	/**
+	 * @return number of tiles visible for queries, differs from size when tiles were added after last buildIndex
+	 */
+	public int getIndexedSize(){
+		return mIndexedSize;
+	}
+
+	/**
+	 * @return right edge of last tile in DSP
+	 */
+	public int getEnd(){
+		return mEnd;
+	}
+
+	/**
+	 * @return bottom edge of lowest tile in DSP
+	 */
+	public int getBottom(){
+		return mBottom;
+	}
+
+	public int getId(int tile){
+		return mIds[tile];
+	}
+
+	public int getX(int tile){
+		return mX[tile];
+	}
+
+	public int getXRight(int tile){
+		return mRight[tile];
+	}
+
+	public int getY(int tile){
+		return mY[tile];
+	}
+
+	public int getYBottom(int tile){
+		return mY[tile] + mHeight[tile];
+	}
+
+	public int getWidth(int tile){
+		return mWidth[tile];
+	}
+
+	public int getHeight(int tile){
+		return mHeight[tile];
+	}
+
+	public int getZ(int tile){
+		return mZ[tile];
+	}
+
+	/**
+	 * @return index of tile, which is on rank place in order by left edges
+	 */
+	public int getIndexByLeft(int rank){
+		return mByLeft[rank];
+	}
+
+	/**
+	 * @return index of tile, which is on rank place in order by right edges
+	 */
+	public int getIndexByRight(int rank){
+		return mByRight[rank];
+	}
+
+	/**
+	 * @return rank of first tile in order by left edges with left edge equal to value or greater, or indexed size if there is none
+	 */
+	public int lowerBoundLeft(int value){
+		return lowerBound(mX, mByLeft, value);
+	}
+
+	/**
+	 * @return rank of first tile in order by right edges with right edge equal to value or greater, or indexed size if there is none
+	 */
+	public int lowerBoundRight(int value){
+		return lowerBound(mRight, mByRight, value);
+	}
+
+	private int lowerBound(int[] keys, int[] order, int value){
+		int lo = 0;
+		int hi = mIndexedSize;
+		while(lo < hi){
+			final int mid = (lo + hi) >>> 1;
+			if(keys[order[mid]] < value) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Finds tiles intersecting area. Results are read by getAreaResultCount and getAreaResult and are valid until next query.
+	 * @param left inclusive
+	 * @param right exclusive
+	 */
+	public void queryArea(int left, int top, int right, int bottom){
+		mSpatialIndex.startQuery();
+		mSpatialIndex.addArea(left, top, right, bottom);
+	}
+
+	/**
+	 * Starts query consisting of several areas, tiles overlapping more of them are reported once
+	 */
+	public void startAreaQuery(){
+		mSpatialIndex.startQuery();
+	}
+
+	public void addQueryArea(int left, int top, int right, int bottom){
+		mSpatialIndex.addArea(left, top, right, bottom);
+	}
+
+	/**
+	 * Adds parts of area outside of excluded rectangle, tiles reaching into excluded rectangle are reported too
+	 */
+	public void addQueryAreaAround(Rect area, Rect excluded){
+		mSpatialIndex.addAreaAround(area.left, area.top, area.right, area.bottom, excluded.left, excluded.top, excluded.right, excluded.bottom);
+	}
+
+	public int getAreaResultCount(){
+		return mSpatialIndex.getResultCount();
+	}
+
+	/**
+	 * @return index of tile
+	 */
+	public int getAreaResult(int i){
+		return mSpatialIndex.getResult(i);
+	}
+}
@@ -0,0 +1,176 @@
+package com.martinappl.components.ui.containers.contentbands;
+
+import java.util.List;
+
+import android.graphics.Rect;
+import android.view.View;
+
+import com.martinappl.components.ui.containers.RecycledViewPool;
+import com.martinappl.components.ui.containers.contentbands.BasicContentBand.LayoutParams;
+
+/**
+ * @author Martin Appl
+ *
+ * Content band adapter backed by TileStore, counterpart of BasicContentBand.AbstractAdapter for very large data sets.
+ * Queries run on primitive arrays and return ranges of ranks, no tile objects or sub lists are created.
+ * Implement getViewForTile, which gets store and index of tile.
+ */
+public abstract class TileStoreAdapter<V extends View> implements BasicContentBand.Adapter {
+	private final BasicContentBand.ViewCache<V> mViewCache = new BasicContentBand.ViewCache<V>();
+	private RecycledViewPool mRecycledViewPool;
+	private int mRecycledViewType;
+
+	protected TileStore mStore;
+
+	public TileStoreAdapter(TileStore store){
+		setStore(store);
+	}
+
+	/**
+	 * Sets store with tiles, index of store must be built
+	 */
+	public void setStore(TileStore store){
+		mStore = store;
+	}
+
+	public TileStore getStore(){
+		return mStore;
+	}
+
+	/**
+	 * Use getLayoutParamsForTile to get correct layout params for tile and set them with setLayoutParams before returning View
+	 * @param store store with tile data
+	 * @param tile index of tile in store
+	 * @param recycled View no more used and returned for recycling
+	 */
+	public abstract V getViewForTile(TileStore store, int tile, V recycled);
+
+	/**
+	 * @param tile index of tile in store
+	 * @return ContendBand layout params
+	 */
+	public LayoutParams getLayoutParamsForTile(int tile){
+		LayoutParams lp = new LayoutParams();
+		lp.tileId = mStore.getId(tile);
+		lp.dspLeft = mStore.getX(tile);
+		lp.dspTop = mStore.getY(tile);
+		lp.dspWidth = mStore.getWidth(tile);
+		lp.dspHeight = mStore.getHeight(tile);
+		lp.z = mStore.getZ(tile);
+		return lp;
+	}
+
+	@Override
+	public int getCount(){
+		return mStore.getIndexedSize();
+	}
+
+	@Override
+	public int getEnd(){
+		return mStore.getEnd();
+	}
+
+	@Override
+	public int getBottom(){
+		return mStore.getBottom();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void offerViewForRecycling(View view){
+		if(mRecycledViewPool != null) mRecycledViewPool.put(mRecycledViewType, view);
+		else mViewCache.cacheView((V) view);
+	}
+
+	/**
+	 * Shares views for reuse with other containers attached to same pool. Pass null to use private cache of adapter.
+	 * @param viewType type under which views of this adapter are kept in pool. All views of this type in pool must be instances of V.
+	 */
+	public void setRecycledViewPool(RecycledViewPool pool, int viewType){
+		mRecycledViewPool = pool;
+		mRecycledViewType = viewType;
+	}
+
+	@SuppressWarnings("unchecked")
+	private V getCachedView(){
+		if(mRecycledViewPool != null) return (V) mRecycledViewPool.get(mRecycledViewType);
+		else return mViewCache.getCachedView();
+	}
+
+	private V getView(int tile){
+		final V v = getViewForTile(mStore, tile, getCachedView());
+		if(!(v.getLayoutParams() instanceof LayoutParams)) v.setLayoutParams(getLayoutParamsForTile(tile));
+		return v;
+	}
+
+	@Override
+	public View[] getViewsByLeftSideRange(int from, int to){
+		final int first = mStore.lowerBoundLeft(from);
+		final int last = mStore.lowerBoundLeft(to);
+		if(from >= to || first >= last) return new View[0];
+
+		final View[] arr = new View[last - first];
+		for(int rank = first; rank < last; rank++){
+			arr[rank - first] = getView(mStore.getIndexByLeft(rank));
+		}
+		return arr;
+	}
+
+	@Override
+	public View[] getViewsByRightSideRange(int from, int to){
+		final int first = mStore.lowerBoundRight(from + 1); //from is exclusive
+		final int last = mStore.lowerBoundRight(to + 1);
+		if(from >= to || first >= last) return new View[0];
+
+		final View[] arr = new View[last - first];
+		for(int rank = first; rank < last; rank++){
+			arr[rank - first] = getView(mStore.getIndexByRight(rank));
+		}
+		return arr;
+	}
+
+	/**
+	 * Tiles with right edge in range are added only if their left edge is before range, others were found by left edge
+	 */
+	@Override
+	public View[] getViewsVisibleInRange(int from, int to){
+		final int firstLeft = mStore.lowerBoundLeft(from);
+		final int lastLeft = mStore.lowerBoundLeft(to);
+		final int firstRight = mStore.lowerBoundRight(from + 1);
+		final int lastRight = mStore.lowerBoundRight(to + 1);
+
+		int count = lastLeft - firstLeft;
+		for(int rank = firstRight; rank < lastRight; rank++){
+			if(mStore.getX(mStore.getIndexByRight(rank)) < from) count++;
+		}
+
+		final View[] arr = new View[count];
+		int j = 0;
+		for(int rank = firstLeft; rank < lastLeft; rank++){
+			arr[j++] = getView(mStore.getIndexByLeft(rank));
+		}
+		int tile;
+		for(int rank = firstRight; rank < lastRight; rank++){
+			tile = mStore.getIndexByRight(rank);
+			if(mStore.getX(tile) < from) arr[j++] = getView(tile);
+		}
+		return arr;
+	}
+
+	@Override
+	public void getViewsInArea(Rect area, Rect filled, List<View> out){
+		mStore.startAreaQuery();
+		mStore.addQueryAreaAround(area, filled);
+
+		//tiles reaching from strips to filled area are displayed already
+		final int c = mStore.getAreaResultCount();
+		int tile;
+		for(int i=0; i < c; i++){
+			tile = mStore.getAreaResult(i);
+			if(!filled.isEmpty() && mStore.getX(tile) < filled.right && mStore.getXRight(tile) > filled.left
+					&& mStore.getY(tile) < filled.bottom && mStore.getYBottom(tile) > filled.top) continue;
+
+			out.add(getView(tile));
+		}
+	}
+}
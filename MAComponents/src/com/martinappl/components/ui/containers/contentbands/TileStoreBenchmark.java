@@ -0,0 +1,180 @@
+package com.martinappl.components.ui.containers.contentbands;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import android.view.View;
+
+/**
+ * @author Martin Appl
+ *
+ * Compares TileStore with tile objects kept by BasicContentBand.AbstractAdapter. Both stores get same generated
+ * program guide like layout (rows of tiles with random widths), then build time, retained memory and time of range queries
+ * by left and right edges are measured. Run it from test activity or instrumentation on device, numbers from desktop JVM
+ * differ a lot from Dalvik.
+ * <pre>
+ * 	Log.i(TAG, TileStoreBenchmark.run(200000, 10000).toString());
+ * </pre>
+ * Memory is measured as difference of used heap after garbage collection, so run it when application is idle.
+ */
+public final class TileStoreBenchmark {
+	private static final int ROW_HEIGHT = 10;
+	private static final int TILES_PER_ROW = 1000;
+	private static final int MIN_TILE_WIDTH = 3;
+	private static final int MAX_TILE_WIDTH = 30;
+	/** Width of queried range, about one screen */
+	private static final int QUERY_WIDTH = 120;
+
+	private TileStoreBenchmark(){}
+
+	public static class Result {
+		public int tileCount;
+		public int queryCount;
+		public long objectStoreBytes;
+		public long primitiveStoreBytes;
+		public long objectBuildNanos;
+		public long primitiveBuildNanos;
+		public long objectQueryNanos;
+		public long primitiveQueryNanos;
+		/** Number of tiles found by queries, should be same for both stores */
+		public long objectFound;
+		public long primitiveFound;
+
+		@Override
+		public String toString() {
+			return "TileStoreBenchmark tiles=" + tileCount + ", queries=" + queryCount
+					+ "\n memory: objects=" + objectStoreBytes / 1024 + "kB, primitive=" + primitiveStoreBytes / 1024 + "kB"
+					+ "\n build: objects=" + objectBuildNanos / 1000000 + "ms, primitive=" + primitiveBuildNanos / 1000000 + "ms"
+					+ "\n queries: objects=" + objectQueryNanos / 1000000 + "ms, primitive=" + primitiveQueryNanos / 1000000 + "ms"
+					+ "\n found: objects=" + objectFound + ", primitive=" + primitiveFound;
+		}
+	}
+
+	/**
+	 * @param tileCount number of generated tiles
+	 * @param queryCount number of queries by left and by right edge for each store
+	 */
+	public static Result run(int tileCount, int queryCount){
+		final Result result = new Result();
+		result.tileCount = tileCount;
+		result.queryCount = queryCount;
+
+		final int[] data = generate(tileCount, new Random(42));
+		final int end = getEnd(data);
+		final int[] queries = new int[queryCount];
+		final Random random = new Random(7);
+		for(int i=0; i < queryCount; i++) queries[i] = random.nextInt(Math.max(1, end));
+
+		//objects
+		long memory = usedMemory();
+		long start = System.nanoTime();
+		BasicContentBand.AbstractAdapter<View, TileBase> adapter = createObjectStore(data);
+		result.objectBuildNanos = System.nanoTime() - start;
+		result.objectStoreBytes = usedMemory() - memory;
+
+		start = System.nanoTime();
+		for(int i=0; i < queryCount; i++){
+			final int from = queries[i];
+			result.objectFound += sumIds(adapter.getTilesWithLeftRange(from, from + QUERY_WIDTH));
+			result.objectFound += sumIds(adapter.getTilesWithRightRange(from, from + QUERY_WIDTH));
+		}
+		result.objectQueryNanos = System.nanoTime() - start;
+		adapter = null;
+
+		//primitive arrays
+		memory = usedMemory();
+		start = System.nanoTime();
+		final TileStore store = createPrimitiveStore(data);
+		result.primitiveBuildNanos = System.nanoTime() - start;
+		result.primitiveStoreBytes = usedMemory() - memory;
+
+		start = System.nanoTime();
+		for(int i=0; i < queryCount; i++){
+			final int from = queries[i];
+			int last = store.lowerBoundLeft(from + QUERY_WIDTH);
+			for(int rank = store.lowerBoundLeft(from); rank < last; rank++){
+				result.primitiveFound += store.getId(store.getIndexByLeft(rank));
+			}
+			last = store.lowerBoundRight(from + QUERY_WIDTH + 1);
+			for(int rank = store.lowerBoundRight(from + 1); rank < last; rank++){
+				result.primitiveFound += store.getId(store.getIndexByRight(rank));
+			}
+		}
+		result.primitiveQueryNanos = System.nanoTime() - start;
+
+		return result;
+	}
+
+	/**
+	 * @return quadruples x, y, width, height, tiles fill rows one after another
+	 */
+	private static int[] generate(int tileCount, Random random){
+		final int[] data = new int[tileCount * 4];
+		int x = 0;
+		for(int i=0; i < tileCount; i++){
+			if(i % TILES_PER_ROW == 0) x = 0;
+			final int width = MIN_TILE_WIDTH + random.nextInt(MAX_TILE_WIDTH - MIN_TILE_WIDTH + 1);
+			data[4 * i] = x;
+			data[4 * i + 1] = (i / TILES_PER_ROW) * ROW_HEIGHT;
+			data[4 * i + 2] = width;
+			data[4 * i + 3] = ROW_HEIGHT;
+			x += width;
+		}
+		return data;
+	}
+
+	private static int getEnd(int[] data){
+		int end = 0;
+		for(int i=0; i < data.length; i += 4) end = Math.max(end, data[i] + data[i + 2]);
+		return end;
+	}
+
+	private static BasicContentBand.AbstractAdapter<View, TileBase> createObjectStore(int[] data){
+		final int c = data.length / 4;
+		final ArrayList<TileBase> tiles = new ArrayList<TileBase>(c);
+		for(int i=0; i < c; i++){
+			final TileBase t = new TileBase();
+			t.setId(i);
+			t.setX(data[4 * i]);
+			t.setY(data[4 * i + 1]);
+			t.setWidth(data[4 * i + 2]);
+			t.setHeight(data[4 * i + 3]);
+			tiles.add(t);
+		}
+
+		return new BasicContentBand.AbstractAdapter<View, TileBase>(tiles) {
+			@Override
+			public View getViewForTile(TileBase t, View recycled) {
+				return recycled;
+			}
+
+			@Override
+			public int getBottom() {
+				return 1;
+			}
+		};
+	}
+
+	private static TileStore createPrimitiveStore(int[] data){
+		final int c = data.length / 4;
+		final TileStore store = new TileStore(c);
+		for(int i=0; i < c; i++){
+			store.add(i, data[4 * i], data[4 * i + 1], data[4 * i + 2], data[4 * i + 3], 0);
+		}
+		store.buildIndex();
+		return store;
+	}
+
+	private static long sumIds(List<TileBase> tiles){
+		long sum = 0;
+		for(int i=0; i < tiles.size(); i++) sum += tiles.get(i).getId();
+		return sum;
+	}
+
+	private static long usedMemory(){
+		final Runtime runtime = Runtime.getRuntime();
+		for(int i=0; i < 3; i++) System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,231 @@
+package com.martinappl.components.ui.containers.contentbands;
+
+import java.util.ArrayList;
+
+import android.graphics.Rect;
+import android.view.View;
+
+import com.martinappl.components.ui.containers.contentbands.BasicContentBand.LayoutParams;
+
+/**
+ * @author Martin Appl
+ *
+ * Keeps set of attached tile views and finds those, which left visible area, without scanning all of them.
+ * Views are kept in four heaps ordered by their edges, so when area moves, only views crossing its edges are visited.
+ * View leaving through one edge is not removed from other heaps immediately, its entries are dropped when they get on top
+ * of heap, or when heap is compacted. Cost of update is proportional to number of views which left area.
+ * Coordinates are in DSP.
+ */
+class VisibleTilesWindow {
+	private static final int NOT_TRACKED = 0;
+
+	/** Exit when right <= area left */
+	private final EdgeHeap mByRight = new EdgeHeap(1);
+	/** Exit when left >= area right */
+	private final EdgeHeap mByLeft = new EdgeHeap(-1);
+	/** Exit when bottom <= area top */
+	private final EdgeHeap mByBottom = new EdgeHeap(1);
+	/** Exit when top >= area bottom */
+	private final EdgeHeap mByTop = new EdgeHeap(-1);
+
+	private int mSize;
+	private int mNextStamp = NOT_TRACKED + 1;
+
+	/**
+	 * Starts tracking attached view
+	 */
+	void add(View v){
+		final LayoutParams lp = (LayoutParams) v.getLayoutParams();
+		if(lp.visibilityStamp != NOT_TRACKED) remove(v);
+
+		lp.visibilityStamp = mNextStamp++;
+		if(mNextStamp == NOT_TRACKED) mNextStamp++;
+
+		mByRight.push(v, lp.getDspRight(), lp.visibilityStamp);
+		mByLeft.push(v, lp.dspLeft, lp.visibilityStamp);
+		mByBottom.push(v, lp.getDspBottom(), lp.visibilityStamp);
+		mByTop.push(v, lp.dspTop, lp.visibilityStamp);
+		mSize++;
+	}
+
+	/**
+	 * Stops tracking view, for example when it is removed from container for other reason than scrolling
+	 */
+	void remove(View v){
+		final LayoutParams lp = (LayoutParams) v.getLayoutParams();
+		if(lp.visibilityStamp == NOT_TRACKED) return;
+		lp.visibilityStamp = NOT_TRACKED;
+		mSize--;
+	}
+
+	void clear(){
+		mByRight.clear();
+		mByLeft.clear();
+		mByBottom.clear();
+		mByTop.clear();
+		mSize = 0;
+	}
+
+	int size(){
+		return mSize;
+	}
+
+	/**
+	 * Moves all tracked views, keeps them in same order
+	 */
+	void offsetHorizontally(int dsp){
+		mByRight.offset(dsp);
+		mByLeft.offset(dsp);
+	}
+
+	/**
+	 * Removes views, which don't intersect area anymore, and puts them to out
+	 */
+	void collectExits(Rect area, ArrayList<View> out){
+		collectExits(mByRight, area.left, out);
+		collectExits(mByLeft, area.right, out);
+		collectExits(mByBottom, area.top, out);
+		collectExits(mByTop, area.bottom, out);
+	}
+
+	/**
+	 * View exits heap when its edge is on other side of limit than area
+	 */
+	private void collectExits(EdgeHeap heap, int limit, ArrayList<View> out){
+		View v;
+		LayoutParams lp;
+		while(heap.size() > 0){
+			v = heap.peekView();
+			lp = (LayoutParams) v.getLayoutParams();
+			if(lp.visibilityStamp != heap.peekStamp()){
+				heap.pop();
+				continue;
+			}
+			if(!heap.isPeekBeyond(limit)) break;
+
+			heap.pop();
+			lp.visibilityStamp = NOT_TRACKED;
+			mSize--;
+			out.add(v);
+		}
+
+		if(heap.size() > 2 * mSize + 16) heap.compact();
+	}
+
+	/**
+	 * Binary min heap of views. Keys are multiplied by sign, so heap with sign -1 has largest edge on top.
+	 */
+	private static class EdgeHeap {
+		private final int mSign;
+		private View[] mViews = new View[16];
+		private int[] mKeys = new int[16];
+		private int[] mStamps = new int[16];
+		private int mSize;
+
+		EdgeHeap(int sign){
+			mSign = sign;
+		}
+
+		int size(){
+			return mSize;
+		}
+
+		View peekView(){
+			return mViews[0];
+		}
+
+		int peekStamp(){
+			return mStamps[0];
+		}
+
+		/**
+		 * @return true if edge on top of heap is on exit side of limit
+		 */
+		boolean isPeekBeyond(int limit){
+			return mKeys[0] <= mSign * limit;
+		}
+
+		void push(View v, int edge, int stamp){
+			if(mSize == mViews.length) grow();
+
+			int i = mSize++;
+			final int key = mSign * edge;
+			while(i > 0){
+				final int parent = (i - 1) >> 1;
+				if(mKeys[parent] <= key) break;
+				set(i, mViews[parent], mKeys[parent], mStamps[parent]);
+				i = parent;
+			}
+			set(i, v, key, stamp);
+		}
+
+		void pop(){
+			mSize--;
+			final View v = mViews[mSize];
+			final int key = mKeys[mSize];
+			final int stamp = mStamps[mSize];
+			mViews[mSize] = null;
+			if(mSize > 0) siftDown(0, v, key, stamp);
+		}
+
+		void offset(int dsp){
+			for(int i=0; i < mSize; i++) mKeys[i] += mSign * dsp;
+		}
+
+		void clear(){
+			for(int i=0; i < mSize; i++) mViews[i] = null;
+			mSize = 0;
+		}
+
+		/**
+		 * Drops entries of views, which are not tracked anymore, and restores heap order
+		 */
+		void compact(){
+			int c = 0;
+			for(int i=0; i < mSize; i++){
+				final LayoutParams lp = (LayoutParams) mViews[i].getLayoutParams();
+				if(lp.visibilityStamp == mStamps[i]){
+					set(c, mViews[i], mKeys[i], mStamps[i]);
+					c++;
+				}
+			}
+			for(int i=c; i < mSize; i++) mViews[i] = null;
+			mSize = c;
+
+			for(int i = (mSize >> 1) - 1; i >= 0; i--){
+				siftDown(i, mViews[i], mKeys[i], mStamps[i]);
+			}
+		}
+
+		private void siftDown(int i, View v, int key, int stamp){
+			final int half = mSize >> 1;
+			while(i < half){
+				int child = 2 * i + 1;
+				if(child + 1 < mSize && mKeys[child + 1] < mKeys[child]) child++;
+				if(key <= mKeys[child]) break;
+				set(i, mViews[child], mKeys[child], mStamps[child]);
+				i = child;
+			}
+			set(i, v, key, stamp);
+		}
+
+		private void set(int i, View v, int key, int stamp){
+			mViews[i] = v;
+			mKeys[i] = key;
+			mStamps[i] = stamp;
+		}
+
+		private void grow(){
+			final int capacity = mViews.length * 2;
+			final View[] views = new View[capacity];
+			final int[] keys = new int[capacity];
+			final int[] stamps = new int[capacity];
+			System.arraycopy(mViews, 0, views, 0, mSize);
+			System.arraycopy(mKeys, 0, keys, 0, mSize);
+			System.arraycopy(mStamps, 0, stamps, 0, mSize);
+			mViews = views;
+			mKeys = keys;
+			mStamps = stamps;
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package com.martinappl.components.ui.containers.interfaces;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Adapter, which can inflate and bind its views on worker thread. Container shows placeholder in place of item
+ * until real view is ready, then it swaps placeholder for real view.
+ */
+public interface IAsyncAdapter {
+	/**
+	 * Called on UI thread. Placeholder must be cheap to bind and should have same size as real view, 
+	 * because real view is laid out to bounds of placeholder.
+	 * @param convertView previously used placeholder or null
+	 */
+	View getPlaceholderView(int position, View convertView, ViewGroup parent);
+	
+	/**
+	 * Called on worker thread. Inflate and bind view for item here. Don't touch views attached to window.
+	 * @param convertView detached view of this adapter for reuse or null
+	 * @param parent container, use it only to generate layout params during inflation
+	 */
+	View getViewAsync(int position, View convertView, ViewGroup parent);
+}
@@ -0,0 +1,13 @@
+package com.martinappl.components.ui.containers.interfaces;
+
+/**
+ * Adapter which can put back items removed from it, used to undo removal
+ */
+public interface IInsertItemsToAdapter{
+	/**
+	 * Inserts items and notifies data change once
+	 * @param positions positions items will have after insertion, in ascending order
+	 * @param items items in same order as positions
+	 */
+	void insertItemsToAdapter(int[] positions, Object[] items);
+}
@@ -4,7 +4,9 @@ import android.view.View;
 
 public interface IRemovableItemsAdapterComponent {
 	/**
-	 * Called when item is removed from component by user clicking on remove button
+	 * Called when item is removed from component by user clicking on remove button or by removeItems()
+	 * @param view view of item, null if item was not laid out, because it was off screen. Don't keep reference to it,
+	 * view is recycled or retained for undo after this call
 	 * @return true, if you removed item from adapter manually in this step
 	 */
 	boolean onItemRemove(int position, View view, Object item);
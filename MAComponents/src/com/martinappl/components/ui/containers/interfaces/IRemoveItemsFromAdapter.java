@@ -0,0 +1,11 @@
+package com.martinappl.components.ui.containers.interfaces;
+
+/**
+ * Adapter which can remove several items at once and notify data change only once
+ */
+public interface IRemoveItemsFromAdapter{
+	/**
+	 * @param positions positions of removed items in ascending order
+	 */
+	void removeItemsFromAdapter(int[] positions);
+}